@@ -10,6 +10,8 @@ import datastructures.interfaces.ISet;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 /**
  * See ISet for more details on what each method is supposed to do.
@@ -64,6 +66,44 @@ public class ChainedHashSet<T> implements ISet<T> {
         return new SetIterator<>(this.map.iterator());
     }
 
+    /**
+     * Returns a spliterator for chained hash set that splits the same way as
+     * the underlying dictionary's
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return new SetSpliterator<>(this.map.spliterator());
+    }
+
+    private static class SetSpliterator<T> implements Spliterator<T> {
+        private Spliterator<KVPair<T, Boolean>> pairs;
+
+        public SetSpliterator(Spliterator<KVPair<T, Boolean>> pairs) {
+            this.pairs = pairs;
+        }
+
+        public boolean tryAdvance(Consumer<? super T> action) {
+            return pairs.tryAdvance(pair -> action.accept(pair.getKey()));
+        }
+
+        public void forEachRemaining(Consumer<? super T> action) {
+            pairs.forEachRemaining(pair -> action.accept(pair.getKey()));
+        }
+
+        public Spliterator<T> trySplit() {
+            Spliterator<KVPair<T, Boolean>> prefix = pairs.trySplit();
+            return prefix == null ? null : new SetSpliterator<>(prefix);
+        }
+
+        public long estimateSize() {
+            return pairs.estimateSize();
+        }
+
+        public int characteristics() {
+            return pairs.characteristics();
+        }
+    }
+
     private static class SetIterator<T> implements Iterator<T> {
         // This should be the only field you need
         private Iterator<KVPair<T, Boolean>> iter;
@@ -0,0 +1,357 @@
+package datastructures.concrete.dictionaries;
+
+import datastructures.concrete.KVPair;
+import datastructures.interfaces.ICursor;
+import datastructures.interfaces.IDictionary;
+import misc.exceptions.NoSuchKeyException;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A dictionary that stays cheap while it is small and switches to a hash
+ * table once it is not.
+ *
+ * Up to PROMOTE_THRESHOLD pairs are kept inline in a single Object array,
+ * keys and values alternating, and found by a linear scan. An empty
+ * dictionary allocates no array at all. Adding a pair past the threshold
+ * moves everything into a ChainedHashDictionary, and removing pairs until
+ * only DEMOTE_THRESHOLD are left moves them back. The gap between the two
+ * thresholds stops a dictionary hovering around one size from converting on
+ * every put and remove.
+ *
+ * See IDictionary for more details on what each method should do.
+ */
+public class AdaptiveDictionary<K, V> implements IDictionary<K, V> {
+    private static final int PROMOTE_THRESHOLD = 8;
+    private static final int DEMOTE_THRESHOLD = 4;
+    private static final int INITIAL_PAIRS = 2;
+
+    // Invariants:
+    //  - exactly one representation is in use: if table is null, the pairs
+    //    are entries[0 .. 2 * size) (entries may be null when size is 0);
+    //    otherwise table holds them all and entries is null
+    //  - if table is null then size <= PROMOTE_THRESHOLD, and if it isn't
+    //    then size > DEMOTE_THRESHOLD
+    private Object[] entries;
+    private ChainedHashDictionary<K, V> table;
+    private int size;
+
+    public AdaptiveDictionary() {
+        this.entries = null;
+        this.table = null;
+        this.size = 0;
+    }
+
+    /**
+     * Returns true if the pairs currently live in a hash table rather than the inline array
+     */
+    public boolean isPromoted() {
+        return table != null;
+    }
+
+    /**
+     * Returns the inline index of the given key, or -1 if it is absent
+     */
+    private int indexOf(K key) {
+        for (int i = 0; i < 2 * size; i += 2) {
+            Object other = entries[i];
+            if (key == other || (key != null && key.equals(other))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int index) {
+        return (V) entries[index + 1];
+    }
+
+    /**
+     * Returns the value for the given key. Throws a NoSuchKeyException if the
+     * key doesn't exist in the dictionary
+     */
+    @Override
+    public V get(K key) {
+        if (table != null) {
+            return table.get(key);
+        }
+        int index = indexOf(key);
+        if (index < 0) {
+            throw new NoSuchKeyException();
+        }
+        return valueAt(index);
+    }
+
+    @Override
+    public V getOrDefault(K key, V defaultValue) {
+        if (table != null) {
+            return table.getOrDefault(key, defaultValue);
+        }
+        int index = indexOf(key);
+        return index < 0 ? defaultValue : valueAt(index);
+    }
+
+    /**
+     * Puts the given key and value into the dictionary, replacing the old
+     * value if the key already exists
+     */
+    @Override
+    public void put(K key, V value) {
+        if (table != null) {
+            table.put(key, value);
+            size = table.size();
+            return;
+        }
+        int index = indexOf(key);
+        if (index >= 0) {
+            entries[index + 1] = value;
+        } else {
+            append(key, value);
+        }
+    }
+
+    /**
+     * Adds a pair for a key known not to be in the dictionary yet, promoting
+     * to a hash table if the inline array is full
+     */
+    private void append(K key, V value) {
+        if (size == PROMOTE_THRESHOLD) {
+            promote();
+            table.put(key, value);
+            size = table.size();
+            return;
+        }
+        if (entries == null) {
+            entries = new Object[2 * INITIAL_PAIRS];
+        } else if (2 * size == entries.length) {
+            Object[] grown = new Object[Math.min(entries.length * 2, 2 * PROMOTE_THRESHOLD)];
+            System.arraycopy(entries, 0, grown, 0, 2 * size);
+            entries = grown;
+        }
+        entries[2 * size] = key;
+        entries[2 * size + 1] = value;
+        size++;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void promote() {
+        table = new ChainedHashDictionary<>();
+        for (int i = 0; i < 2 * size; i += 2) {
+            table.put((K) entries[i], (V) entries[i + 1]);
+        }
+        entries = null;
+    }
+
+    /**
+     * Moves the pairs back into an inline array once the hash table has shrunk enough
+     */
+    private void demoteIfNeeded() {
+        if (table == null || table.size() > DEMOTE_THRESHOLD) {
+            return;
+        }
+        Object[] inline = new Object[2 * PROMOTE_THRESHOLD];
+        int[] count = {0};
+        table.forEach((key, value) -> {
+            inline[2 * count[0]] = key;
+            inline[2 * count[0] + 1] = value;
+            count[0]++;
+        });
+        entries = inline;
+        table = null;
+    }
+
+    /**
+     * Brings size up to date after an operation on the hash table, demoting if it shrank enough
+     */
+    private <R> R afterTableUpdate(R result) {
+        size = table.size();
+        demoteIfNeeded();
+        return result;
+    }
+
+    /**
+     * Removes the given key and returns its value. Throws a NoSuchKeyException
+     * if the key doesn't exist in the dictionary
+     */
+    @Override
+    public V remove(K key) {
+        if (table != null) {
+            return afterTableUpdate(table.remove(key));
+        }
+        int index = indexOf(key);
+        if (index < 0) {
+            throw new NoSuchKeyException();
+        }
+        return removeAt(index);
+    }
+
+    /**
+     * Removes the inline pair at the given index by moving the last pair into it, and returns its value
+     */
+    private V removeAt(int index) {
+        V value = valueAt(index);
+        int last = 2 * (size - 1);
+        entries[index] = entries[last];
+        entries[index + 1] = entries[last + 1];
+        entries[last] = null;
+        entries[last + 1] = null;
+        size--;
+        return value;
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        if (table != null) {
+            return afterTableUpdate(table.putIfAbsent(key, value));
+        }
+        int index = indexOf(key);
+        if (index >= 0) {
+            return valueAt(index);
+        }
+        append(key, value);
+        return null;
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        if (table != null) {
+            return afterTableUpdate(table.computeIfAbsent(key, mappingFunction));
+        }
+        int index = indexOf(key);
+        if (index >= 0) {
+            return valueAt(index);
+        }
+        V value = mappingFunction.apply(key);
+        if (value != null) {
+            append(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        if (table != null) {
+            return afterTableUpdate(table.compute(key, remappingFunction));
+        }
+        int index = indexOf(key);
+        V value = remappingFunction.apply(key, index < 0 ? null : valueAt(index));
+        if (value == null) {
+            if (index >= 0) {
+                removeAt(index);
+            }
+        } else if (index < 0) {
+            append(key, value);
+        } else {
+            entries[index + 1] = value;
+        }
+        return value;
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        if (table != null) {
+            return afterTableUpdate(table.merge(key, value, remappingFunction));
+        }
+        int index = indexOf(key);
+        if (index < 0) {
+            append(key, value);
+            return value;
+        }
+        V newValue = remappingFunction.apply(valueAt(index), value);
+        if (newValue == null) {
+            removeAt(index);
+        } else {
+            entries[index + 1] = newValue;
+        }
+        return newValue;
+    }
+
+    /**
+     * Returns true if the dictionary contains the key, false otherwise
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return table != null ? table.containsKey(key) : indexOf(key) >= 0;
+    }
+
+    /**
+     * Returns the number of key-value pairs in the dictionary
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Calls the action on each pair, in a plain loop while the pairs are inline
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (table != null) {
+            table.forEach(action);
+            return;
+        }
+        for (int i = 0; i < 2 * size; i += 2) {
+            action.accept((K) entries[i], (V) entries[i + 1]);
+        }
+    }
+
+    @Override
+    public ICursor<K, V> cursor() {
+        return table != null ? table.cursor() : IDictionary.super.cursor();
+    }
+
+    @Override
+    public Spliterator<KVPair<K, V>> spliterator() {
+        return table != null ? table.spliterator() : IDictionary.super.spliterator();
+    }
+
+    /**
+     * Returns the iterator for AdaptiveDictionary
+     */
+    @Override
+    public Iterator<KVPair<K, V>> iterator() {
+        if (table != null) {
+            return table.iterator();
+        }
+        return new InlineIterator<>(entries, size);
+    }
+
+    private static class InlineIterator<K, V> implements Iterator<KVPair<K, V>> {
+        private final Object[] entries;
+        private final int size;
+        private int index;
+
+        public InlineIterator(Object[] entries, int size) {
+            this.entries = entries;
+            this.size = size;
+            this.index = 0;
+        }
+
+        /**
+         * Returns true if there is another pair, false otherwise
+         */
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        /**
+         * Returns the next KVPair, throws a NoSuchElementException if there isn't one
+         */
+        @SuppressWarnings("unchecked")
+        public KVPair<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            index++;
+            return new KVPair<>((K) entries[2 * index - 2], (V) entries[2 * index - 1]);
+        }
+    }
+}
@@ -6,8 +6,12 @@ package datastructures.concrete.dictionaries;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 import datastructures.concrete.KVPair;
+import datastructures.interfaces.ICursor;
 import datastructures.interfaces.IDictionary;
 import misc.exceptions.NoSuchKeyException;
 
@@ -19,14 +23,32 @@ public class ArrayDictionary<K, V> implements IDictionary<K, V> {
     // it using our private tests.
     private Pair<K, V>[] pairs;
     private int size;
+    // If true, every successful lookup swaps the pair with the one before it
+    private final boolean selfOrganizing;
 
     
     /**
      * Constructor for ArrayDictionary class
      */
     public ArrayDictionary() {
+    	this(false);
+    }
+
+    /**
+     * Creates an empty dictionary. If selfOrganizing is true, each key that is
+     * found moves one place towards the front of the array ("transpose"), so
+     * under skewed access the hot keys end up near the front and scans get
+     * shorter. Moving one place at a time is slower to adapt than moving
+     * straight to the front, but a single lookup of a cold key barely
+     * disturbs the order.
+     *
+     * Note that in this mode reads change the iteration order, so the
+     * dictionary must not be read while it is being iterated over.
+     */
+    public ArrayDictionary(boolean selfOrganizing) {
     	pairs = makeArrayOfPairs(10);
     	size = 0;
+    	this.selfOrganizing = selfOrganizing;
     }
 
     /**
@@ -56,22 +78,37 @@ public class ArrayDictionary<K, V> implements IDictionary<K, V> {
      */
     @Override
     public V get(K key) {
-        for (int i = 0; i < size; i++) {
-            if (key == pairs[i].key || (key != null && key.equals(pairs[i].key))) {
-                return pairs[i].value;
-            }
+        Pair<K, V> keyPair = getPair(key);
+        if (keyPair == null) {
+            throw new NoSuchKeyException();
         }
-        throw new NoSuchKeyException();
+        return keyPair.value;
+    }
+
+    /**
+     * Returns the value corresponding to the given key, or the default value
+     * if the key doesn't exist, scanning the array once.
+     */
+    @Override
+    public V getOrDefault(K key, V defaultValue) {
+        Pair<K, V> keyPair = getPair(key);
+        return keyPair == null ? defaultValue : keyPair.value;
     }
 
     /**
      * Given a key, returns the key-value Pair object.
      * If the key does not exist, returns null.
+     * In self-organizing mode, the pair is moved one place towards the front.
      */
     private Pair<K, V> getPair(K key) {
     	for (int i = 0; i < size; i++) {
-            if (key == pairs[i].key || (key != null && key.equals(pairs[i].key))) {
-                return pairs[i];
+            Pair<K, V> pair = pairs[i];
+            if (key == pair.key || (key != null && key.equals(pair.key))) {
+                if (selfOrganizing && i > 0) {
+                    pairs[i] = pairs[i - 1];
+                    pairs[i - 1] = pair;
+                }
+                return pair;
             }
     	}
     	return null;
@@ -97,18 +134,91 @@ public class ArrayDictionary<K, V> implements IDictionary<K, V> {
     public void put(K key, V value) {
     	Pair<K, V> keyPair = getPair(key);
     	if (keyPair == null) { //Adds a new pair
-            Pair<K, V> newPair = new Pair(key, value);
-            if (size == pairs.length) { //Extends if list length is not long enough
-                Pair<K, V>[] newPairs = extendArray(pairs);
-                pairs = newPairs;
-            }
-            pairs[size] = newPair;
-            size++;
+            append(key, value);
     	} else { //Key already exists, changes to the new value
             keyPair.value = value;
     	}	
     }
 
+    /**
+     * Adds a pair for a key known not to be in the dictionary yet
+     */
+    private void append(K key, V value) {
+        if (size == pairs.length) { //Extends if list length is not long enough
+            pairs = extendArray(pairs);
+        }
+        pairs[size] = new Pair<>(key, value);
+        size++;
+    }
+
+    /**
+     * Adds the key-value pair if the key is absent, scanning the array once.
+     * Returns the existing value, or null if the pair was added.
+     */
+    @Override
+    public V putIfAbsent(K key, V value) {
+        Pair<K, V> keyPair = getPair(key);
+        if (keyPair != null) {
+            return keyPair.value;
+        }
+        append(key, value);
+        return null;
+    }
+
+    /**
+     * Adds a computed value for the key if it is absent, scanning the array once.
+     */
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        Pair<K, V> keyPair = getPair(key);
+        if (keyPair != null) {
+            return keyPair.value;
+        }
+        V value = mappingFunction.apply(key);
+        if (value != null) {
+            append(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Replaces, adds or removes the key's value as the function decides, scanning the array once.
+     */
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        int index = getIndex(key);
+        V value = remappingFunction.apply(key, index == -1 ? null : pairs[index].value);
+        if (value == null) {
+            if (index != -1) {
+                removeAt(index);
+            }
+        } else if (index == -1) {
+            append(key, value);
+        } else {
+            pairs[index].value = value;
+        }
+        return value;
+    }
+
+    /**
+     * Adds the value, or combines it with the existing one, scanning the array once.
+     */
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        int index = getIndex(key);
+        if (index == -1) {
+            append(key, value);
+            return value;
+        }
+        V newValue = remappingFunction.apply(pairs[index].value, value);
+        if (newValue == null) {
+            removeAt(index);
+        } else {
+            pairs[index].value = newValue;
+        }
+        return newValue;
+    }
+
     /**
      * Finds and returns the index of a given key.
      * If the key does not exists, return -1.
@@ -128,15 +238,22 @@ public class ArrayDictionary<K, V> implements IDictionary<K, V> {
      */    
     @Override
     public V remove(K key) {
-    	if (!containsKey(key)) {
+        int index = getIndex(key);
+    	if (index == -1) {
             throw new NoSuchKeyException();
     	}
-        int index = getIndex(key);
+        return removeAt(index);
+    }
+
+    /**
+     * Removes the pair at the given index, shifting later pairs down, and returns its value
+     */
+    private V removeAt(int index) {
         V value = pairs[index].value;
         for (int i = index; i < size - 1; i++) {
             pairs[i] = pairs[i+1];
         }
-        pairs[size] = null;
+        pairs[size - 1] = null;
         size--;
         return value;
     }
@@ -157,6 +274,47 @@ public class ArrayDictionary<K, V> implements IDictionary<K, V> {
         return this.size;
     }
 
+    /**
+     * Calls the action on each pair in a plain loop over the array
+     */
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(pairs[i].key, pairs[i].value);
+        }
+    }
+
+    /**
+     * Returns a cursor that reads the pairs array directly
+     */
+    @Override
+    public ICursor<K, V> cursor() {
+        return new ArrayCursor();
+    }
+
+    private class ArrayCursor implements ICursor<K, V> {
+        private int index = -1;
+
+        public boolean advance() {
+            if (index < size) {
+                index++;
+            }
+            return index < size;
+        }
+
+        public K key() {
+            return pairs[index].key;
+        }
+
+        public V value() {
+            return pairs[index].value;
+        }
+
+        public void reset() {
+            index = -1;
+        }
+    }
+
     private static class Pair<K, V> {
         public K key;
         public V value;
@@ -0,0 +1,574 @@
+package datastructures.concrete.dictionaries;
+
+import datastructures.concrete.KVPair;
+import datastructures.interfaces.IDictionary;
+import misc.exceptions.EmptyContainerException;
+import misc.exceptions.NoSuchKeyException;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+/**
+ * A dictionary that keeps its keys sorted in a B+ tree, so besides the usual
+ * operations it can answer ordered queries: floorKey, ceilingKey, firstKey,
+ * lastKey and range scans.
+ *
+ * Every node holds up to 64 keys in a flat array, so a lookup reads a few wide,
+ * mostly contiguous nodes instead of chasing a pointer per comparison as in a
+ * binary tree. All pairs live in the leaves, which are linked to their
+ * neighbors, so range(lo, hi) finds the first leaf in O(log n) and then simply
+ * walks the leaves, making a range query O(log n + k) for k results.
+ *
+ * Null keys are not supported, since floorKey and ceilingKey use null to mean
+ * that there is no such key.
+ *
+ * See IDictionary for more details on what each method should do.
+ */
+public class BTreeDictionary<K extends Comparable<K>, V> implements IDictionary<K, V> {
+    private static final int MAX_KEYS = 64;
+    private static final int MIN_KEYS = MAX_KEYS / 2;
+
+    // Invariants:
+    //  - every leaf is at the same depth
+    //  - every node except the root holds between MIN_KEYS and MAX_KEYS keys
+    //  - in an inner node, every key in children[i] is less than keys[i], and
+    //    every key in children[i + 1] is greater than or equal to keys[i]
+    private Node<K> root;
+    private int size;
+
+    public BTreeDictionary() {
+        this.root = new Leaf<>();
+        this.size = 0;
+    }
+
+    private static <K> void checkKey(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("BTreeDictionary does not support null keys");
+        }
+    }
+
+    /**
+     * Returns the leaf whose range covers the given key
+     */
+    private Leaf<K, V> findLeaf(K key) {
+        Node<K> node = root;
+        while (node instanceof Inner) {
+            Inner<K> inner = (Inner<K>) node;
+            node = inner.children[inner.childIndex(key)];
+        }
+        return asLeaf(node);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Leaf<K, V> asLeaf(Node<K> node) {
+        return (Leaf<K, V>) node;
+    }
+
+    /**
+     * Returns the value for the given key. Throws a NoSuchKeyException if the
+     * key doesn't exist in the dictionary
+     */
+    @Override
+    public V get(K key) {
+        checkKey(key);
+        Leaf<K, V> leaf = findLeaf(key);
+        int index = leaf.search(key);
+        if (index < 0) {
+            throw new NoSuchKeyException();
+        }
+        return leaf.values[index];
+    }
+
+    @Override
+    public V getOrDefault(K key, V defaultValue) {
+        checkKey(key);
+        Leaf<K, V> leaf = findLeaf(key);
+        int index = leaf.search(key);
+        return index < 0 ? defaultValue : leaf.values[index];
+    }
+
+    /**
+     * Puts the given key and value into the dictionary, replacing the old
+     * value if the key already exists
+     */
+    @Override
+    public void put(K key, V value) {
+        checkKey(key);
+        insert(root, key, value);
+        if (root.size > MAX_KEYS) {
+            Inner<K> newRoot = new Inner<>();
+            newRoot.children[0] = root;
+            newRoot.splitChild(0);
+            root = newRoot;
+        }
+    }
+
+    /**
+     * Adds the pair to the subtree under the given node. The node may be left
+     * overfull, in which case its parent splits it.
+     */
+    private void insert(Node<K> node, K key, V value) {
+        if (node instanceof Inner) {
+            Inner<K> inner = (Inner<K>) node;
+            int childIndex = inner.childIndex(key);
+            insert(inner.children[childIndex], key, value);
+            if (inner.children[childIndex].size > MAX_KEYS) {
+                inner.splitChild(childIndex);
+            }
+            return;
+        }
+        Leaf<K, V> leaf = asLeaf(node);
+        int index = leaf.search(key);
+        if (index >= 0) {
+            leaf.values[index] = value;
+        } else {
+            leaf.insertAt(-index - 1, key, value);
+            size++;
+        }
+    }
+
+    /**
+     * Removes the given key and returns its value. Throws a NoSuchKeyException
+     * if the key doesn't exist in the dictionary
+     */
+    @Override
+    public V remove(K key) {
+        checkKey(key);
+        V value = delete(root, key);
+        if (root instanceof Inner && root.size == 0) {
+            root = ((Inner<K>) root).children[0];
+        }
+        return value;
+    }
+
+    /**
+     * Removes the key from the subtree under the given node and returns its
+     * value. The node may be left underfull, in which case its parent fixes it.
+     */
+    private V delete(Node<K> node, K key) {
+        if (node instanceof Inner) {
+            Inner<K> inner = (Inner<K>) node;
+            int childIndex = inner.childIndex(key);
+            V value = delete(inner.children[childIndex], key);
+            if (inner.children[childIndex].size < MIN_KEYS) {
+                inner.rebalanceChild(childIndex);
+            }
+            return value;
+        }
+        Leaf<K, V> leaf = asLeaf(node);
+        int index = leaf.search(key);
+        if (index < 0) {
+            throw new NoSuchKeyException();
+        }
+        V value = leaf.values[index];
+        leaf.removeAt(index);
+        size--;
+        return value;
+    }
+
+    /**
+     * Returns true if the dictionary contains the key, false otherwise
+     */
+    @Override
+    public boolean containsKey(K key) {
+        checkKey(key);
+        return findLeaf(key).search(key) >= 0;
+    }
+
+    /**
+     * Returns the number of key-value pairs in the dictionary
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the smallest key in the dictionary.
+     *
+     * @throws EmptyContainerException if the dictionary is empty.
+     */
+    public K firstKey() {
+        if (size == 0) {
+            throw new EmptyContainerException();
+        }
+        return firstLeaf().keys[0];
+    }
+
+    /**
+     * Returns the largest key in the dictionary.
+     *
+     * @throws EmptyContainerException if the dictionary is empty.
+     */
+    public K lastKey() {
+        if (size == 0) {
+            throw new EmptyContainerException();
+        }
+        Node<K> node = root;
+        while (node instanceof Inner) {
+            node = ((Inner<K>) node).children[node.size];
+        }
+        return node.keys[node.size - 1];
+    }
+
+    /**
+     * Returns the largest key less than or equal to the given key, or null if there is none.
+     */
+    public K floorKey(K key) {
+        checkKey(key);
+        Leaf<K, V> leaf = findLeaf(key);
+        int index = leaf.search(key);
+        if (index >= 0) {
+            return leaf.keys[index];
+        }
+        int insertionPoint = -index - 1;
+        if (insertionPoint > 0) {
+            return leaf.keys[insertionPoint - 1];
+        }
+        return leaf.prev == null ? null : leaf.prev.keys[leaf.prev.size - 1];
+    }
+
+    /**
+     * Returns the smallest key greater than or equal to the given key, or null if there is none.
+     */
+    public K ceilingKey(K key) {
+        checkKey(key);
+        Leaf<K, V> leaf = findLeaf(key);
+        int index = leaf.search(key);
+        if (index >= 0) {
+            return leaf.keys[index];
+        }
+        int insertionPoint = -index - 1;
+        if (insertionPoint < leaf.size) {
+            return leaf.keys[insertionPoint];
+        }
+        return leaf.next == null ? null : leaf.next.keys[0];
+    }
+
+    private Leaf<K, V> firstLeaf() {
+        Node<K> node = root;
+        while (node instanceof Inner) {
+            node = ((Inner<K>) node).children[0];
+        }
+        return asLeaf(node);
+    }
+
+    /**
+     * Calls the action on each pair in ascending key order
+     */
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (Leaf<K, V> leaf = firstLeaf(); leaf != null; leaf = leaf.next) {
+            for (int i = 0; i < leaf.size; i++) {
+                action.accept(leaf.keys[i], leaf.values[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns an iterator over the pairs in ascending key order
+     */
+    @Override
+    public Iterator<KVPair<K, V>> iterator() {
+        return new BTreeIterator<>(firstLeaf(), 0, null);
+    }
+
+    /**
+     * Returns an iterator over the pairs whose keys are at least lo and less
+     * than hi, in ascending key order. Pairs are found as the iterator
+     * advances, so stopping early costs nothing for the rest of the range.
+     */
+    public Iterator<KVPair<K, V>> range(K lo, K hi) {
+        checkKey(lo);
+        checkKey(hi);
+        Leaf<K, V> leaf = findLeaf(lo);
+        int index = leaf.search(lo);
+        return new BTreeIterator<>(leaf, index >= 0 ? index : -index - 1, hi);
+    }
+
+    private abstract static class Node<K> {
+        // Sized for one more key than allowed, so a node can overflow until its parent splits it
+        public final K[] keys;
+        public int size;
+
+        @SuppressWarnings("unchecked")
+        public Node() {
+            this.keys = (K[]) new Comparable[MAX_KEYS + 1];
+            this.size = 0;
+        }
+    }
+
+    private static class Leaf<K extends Comparable<K>, V> extends Node<K> {
+        public final V[] values;
+        public Leaf<K, V> prev;
+        public Leaf<K, V> next;
+
+        @SuppressWarnings("unchecked")
+        public Leaf() {
+            this.values = (V[]) new Object[MAX_KEYS + 1];
+        }
+
+        /**
+         * Returns the index of the key, or -(insertion point) - 1 if it is absent
+         */
+        public int search(K key) {
+            int lo = 0;
+            int hi = size - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int cmp = keys[mid].compareTo(key);
+                if (cmp < 0) {
+                    lo = mid + 1;
+                } else if (cmp > 0) {
+                    hi = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -lo - 1;
+        }
+
+        public void insertAt(int index, K key, V value) {
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(values, index, values, index + 1, size - index);
+            keys[index] = key;
+            values[index] = value;
+            size++;
+        }
+
+        public void removeAt(int index) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+            keys[size] = null;
+            values[size] = null;
+        }
+    }
+
+    private static class Inner<K extends Comparable<K>> extends Node<K> {
+        public final Node<K>[] children;
+
+        @SuppressWarnings("unchecked")
+        public Inner() {
+            this.children = (Node<K>[]) new Node[MAX_KEYS + 2];
+        }
+
+        /**
+         * Returns the index of the child whose range covers the given key
+         */
+        public int childIndex(K key) {
+            int lo = 0;
+            int hi = size;
+            // Find the number of keys that are less than or equal to the given key
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid].compareTo(key) <= 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        /**
+         * Adds the key at the given index and the child to its right
+         */
+        public void insertAt(int index, K key, Node<K> rightChild) {
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(children, index + 1, children, index + 2, size - index);
+            keys[index] = key;
+            children[index + 1] = rightChild;
+            size++;
+        }
+
+        /**
+         * Removes the key at the given index and the child to its right
+         */
+        public void removeAt(int index) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(children, index + 2, children, index + 1, size - index - 1);
+            size--;
+            keys[size] = null;
+            children[size + 1] = null;
+        }
+
+        /**
+         * Splits the overfull child at the given index in two
+         */
+        @SuppressWarnings("unchecked")
+        public void splitChild(int index) {
+            Node<K> child = children[index];
+            int half = child.size / 2;
+            if (child instanceof Leaf) {
+                Leaf<K, Object> left = (Leaf<K, Object>) child;
+                Leaf<K, Object> right = new Leaf<>();
+                right.size = left.size - half;
+                System.arraycopy(left.keys, half, right.keys, 0, right.size);
+                System.arraycopy(left.values, half, right.values, 0, right.size);
+                clear(left.keys, half, left.size);
+                clear(left.values, half, left.size);
+                left.size = half;
+
+                right.next = left.next;
+                right.prev = left;
+                if (left.next != null) {
+                    left.next.prev = right;
+                }
+                left.next = right;
+                insertAt(index, right.keys[0], right);
+            } else {
+                // The middle key moves up into this node instead of being copied
+                Inner<K> left = (Inner<K>) child;
+                Inner<K> right = new Inner<>();
+                K middle = left.keys[half];
+                right.size = left.size - half - 1;
+                System.arraycopy(left.keys, half + 1, right.keys, 0, right.size);
+                System.arraycopy(left.children, half + 1, right.children, 0, right.size + 1);
+                clear(left.keys, half, left.size);
+                clear(left.children, half + 1, left.size + 1);
+                left.size = half;
+                insertAt(index, middle, right);
+            }
+        }
+
+        /**
+         * Fixes the underfull child at the given index by borrowing a key from
+         * a sibling, or by merging it with a sibling if neither can spare one
+         */
+        public void rebalanceChild(int index) {
+            if (index > 0 && children[index - 1].size > MIN_KEYS) {
+                borrowFromLeft(index);
+            } else if (index < size && children[index + 1].size > MIN_KEYS) {
+                borrowFromRight(index);
+            } else if (index > 0) {
+                merge(index - 1);
+            } else {
+                merge(index);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void borrowFromLeft(int index) {
+            Node<K> child = children[index];
+            Node<K> left = children[index - 1];
+            if (child instanceof Leaf) {
+                Leaf<K, Object> leafChild = (Leaf<K, Object>) child;
+                Leaf<K, Object> leafLeft = (Leaf<K, Object>) left;
+                leafChild.insertAt(0, leafLeft.keys[leafLeft.size - 1], leafLeft.values[leafLeft.size - 1]);
+                leafLeft.removeAt(leafLeft.size - 1);
+                keys[index - 1] = leafChild.keys[0];
+            } else {
+                Inner<K> innerChild = (Inner<K>) child;
+                Inner<K> innerLeft = (Inner<K>) left;
+                System.arraycopy(innerChild.keys, 0, innerChild.keys, 1, innerChild.size);
+                System.arraycopy(innerChild.children, 0, innerChild.children, 1, innerChild.size + 1);
+                innerChild.keys[0] = keys[index - 1];
+                innerChild.children[0] = innerLeft.children[innerLeft.size];
+                innerChild.size++;
+                keys[index - 1] = innerLeft.keys[innerLeft.size - 1];
+                innerLeft.keys[innerLeft.size - 1] = null;
+                innerLeft.children[innerLeft.size] = null;
+                innerLeft.size--;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void borrowFromRight(int index) {
+            Node<K> child = children[index];
+            Node<K> right = children[index + 1];
+            if (child instanceof Leaf) {
+                Leaf<K, Object> leafChild = (Leaf<K, Object>) child;
+                Leaf<K, Object> leafRight = (Leaf<K, Object>) right;
+                leafChild.insertAt(leafChild.size, leafRight.keys[0], leafRight.values[0]);
+                leafRight.removeAt(0);
+                keys[index] = leafRight.keys[0];
+            } else {
+                Inner<K> innerChild = (Inner<K>) child;
+                Inner<K> innerRight = (Inner<K>) right;
+                innerChild.keys[innerChild.size] = keys[index];
+                innerChild.children[innerChild.size + 1] = innerRight.children[0];
+                innerChild.size++;
+                keys[index] = innerRight.keys[0];
+                System.arraycopy(innerRight.keys, 1, innerRight.keys, 0, innerRight.size - 1);
+                System.arraycopy(innerRight.children, 1, innerRight.children, 0, innerRight.size);
+                innerRight.size--;
+                innerRight.keys[innerRight.size] = null;
+                innerRight.children[innerRight.size + 1] = null;
+            }
+        }
+
+        /**
+         * Merges the child to the right of the key at the given index into the
+         * child to its left, and drops the key
+         */
+        @SuppressWarnings("unchecked")
+        private void merge(int index) {
+            Node<K> left = children[index];
+            Node<K> right = children[index + 1];
+            if (left instanceof Leaf) {
+                Leaf<K, Object> leafLeft = (Leaf<K, Object>) left;
+                Leaf<K, Object> leafRight = (Leaf<K, Object>) right;
+                System.arraycopy(leafRight.keys, 0, leafLeft.keys, leafLeft.size, leafRight.size);
+                System.arraycopy(leafRight.values, 0, leafLeft.values, leafLeft.size, leafRight.size);
+                leafLeft.size += leafRight.size;
+                leafLeft.next = leafRight.next;
+                if (leafRight.next != null) {
+                    leafRight.next.prev = leafLeft;
+                }
+            } else {
+                Inner<K> innerLeft = (Inner<K>) left;
+                Inner<K> innerRight = (Inner<K>) right;
+                innerLeft.keys[innerLeft.size] = keys[index];
+                System.arraycopy(innerRight.keys, 0, innerLeft.keys, innerLeft.size + 1, innerRight.size);
+                System.arraycopy(innerRight.children, 0, innerLeft.children, innerLeft.size + 1,
+                        innerRight.size + 1);
+                innerLeft.size += innerRight.size + 1;
+            }
+            removeAt(index);
+        }
+
+        private static void clear(Object[] array, int from, int to) {
+            for (int i = from; i < to; i++) {
+                array[i] = null;
+            }
+        }
+    }
+
+    private static class BTreeIterator<K extends Comparable<K>, V> implements Iterator<KVPair<K, V>> {
+        private Leaf<K, V> leaf;
+        private int index;
+        // Iteration stops at the first key that is not less than this, or runs to the end if null
+        private final K hi;
+
+        public BTreeIterator(Leaf<K, V> leaf, int index, K hi) {
+            this.leaf = leaf;
+            this.index = index;
+            this.hi = hi;
+        }
+
+        /**
+         * Returns true if there is another pair in range, false otherwise
+         */
+        public boolean hasNext() {
+            while (leaf != null && index >= leaf.size) {
+                leaf = leaf.next;
+                index = 0;
+            }
+            return leaf != null && (hi == null || leaf.keys[index].compareTo(hi) < 0);
+        }
+
+        /**
+         * Returns the next KVPair, throws a NoSuchElementException if there isn't one
+         */
+        public KVPair<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            KVPair<K, V> pair = new KVPair<>(leaf.keys[index], leaf.values[index]);
+            index++;
+            return pair;
+        }
+    }
+}
@@ -5,11 +5,17 @@
 package datastructures.concrete.dictionaries;
 
 import datastructures.concrete.KVPair;
+import datastructures.interfaces.ICursor;
 import datastructures.interfaces.IDictionary;
 import misc.exceptions.NoSuchKeyException;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * See the spec and IDictionary for more details on what each method should do
@@ -20,12 +26,69 @@ public class ChainedHashDictionary<K, V> implements IDictionary<K, V> {
     private IDictionary<K, V>[] chains;
     private int numPairs;
     private static final double LOAD_FACTOR = 0.75;
+    // Number of old buckets moved per get/put/remove while an incremental resize is running
+    private static final int MIGRATION_STEP = 4;
+    // Default value that tells getOrDefault()'s caller a chain lacks the key, since a value may be null
+    private static final Object MISSING = new Object();
+    // A chain longer than this is turned into a search tree, and a tree
+    // smaller than UNTREEIFY_THRESHOLD goes back to being a CompactArrayDictionary.
+    // The gap between the two stops a chain from flipping back and forth.
+    private static final int TREEIFY_THRESHOLD = 8;
+    private static final int UNTREEIFY_THRESHOLD = 6;
 
     // You're encouraged to add extra fields (and helper methods) though!
 
+    // Incremental resize state. While a resize is in progress, oldChains holds
+    // the previous table and every bucket below migrationIndex has already been
+    // moved into chains (and nulled out). Each key lives in exactly one of the
+    // two tables. When no resize is running, oldChains is null.
+    private final boolean incrementalResize;
+    private IDictionary<K, V>[] oldChains;
+    private int migrationIndex;
+    // Hashes and compares keys, here and in every chain. Replaced by reseed()
+    // when the strategy has a seed and a chain grows suspiciously long.
+    private HashStrategy<K> strategy;
+    private int pairsAtLastReseed;
+
     public ChainedHashDictionary() {
+        this(false);
+    }
+
+    /**
+     * Creates an empty dictionary. If incrementalResize is true, growing the
+     * table no longer rehashes every entry inside a single put: the old and new
+     * tables are kept side by side and a bounded number of buckets are moved
+     * on each operation, so no single operation pays for the whole table.
+     * get, put and remove all move a step of buckets, and lookups check both
+     * tables until the move finishes. Iterating first finishes any move still
+     * running, so calling get() while iterating doesn't move pairs under the
+     * iterator.
+     */
+    public ChainedHashDictionary(boolean incrementalResize) {
+        this(incrementalResize, HashStrategy.natural());
+    }
+
+    /**
+     * Creates an empty dictionary that hashes and compares keys with the given
+     * strategy instead of their own hashCode() and equals(). If the strategy
+     * has a seed (see HashStrategy.reseed()), a chain growing past
+     * TREEIFY_THRESHOLD rehashes the table with a new seed, at most once each
+     * time the number of pairs doubles. With a SipHashStrategy this keeps keys
+     * chosen by an attacker from piling into one chain.
+     */
+    public ChainedHashDictionary(HashStrategy<K> strategy) {
+        this(false, strategy);
+    }
+
+    public ChainedHashDictionary(boolean incrementalResize, HashStrategy<K> strategy) {
+        this.incrementalResize = incrementalResize;
+        this.strategy = strategy;
+        pairsAtLastReseed = 0;
+        // The length must stay a power of two, since hashValue() masks instead of dividing
         chains = makeArrayOfChains(16);
         numPairs = 0;
+        oldChains = null;
+        migrationIndex = 0;
     }
 
     /**
@@ -48,40 +111,166 @@ public class ChainedHashDictionary<K, V> implements IDictionary<K, V> {
      * @return: int corresponding to the element of the array the key should go in
      */
     private int hashValue(K key) {
-    	if (key == null) {
-            return 0;
-    	}
-    	return Math.abs(key.hashCode() % (chains.length - 1));
+    	return hashValue(key, chains);
+    }
+
+    /**
+     * Returns the element the given key should go in for the given table.
+     * The hash is mixed first, so keeping only its low bits still spreads
+     * keys over every chain.
+     */
+    private int hashValue(K key, IDictionary<K, V>[] table) {
+    	return HashStrategy.mix(strategy.hash(key)) & (table.length - 1);
     }
     
     /**
      * Creates a new hashDictionary with double the length, copying
-     * and rehashing all the values in the hashDictionary
+     * and rehashing all the values in the hashDictionary. In incremental
+     * mode this only swaps in the new table; the entries are moved over
+     * a few buckets at a time by migrateStep()
      */
     private void resize() {
     	IDictionary<K, V>[] chainsOld = chains;
     	chains = makeArrayOfChains(chains.length * 2);
+    	if (incrementalResize) {
+    	    oldChains = chainsOld;
+    	    migrationIndex = 0;
+    	    return;
+    	}
     	for (int i = 0; i < chainsOld.length; i++) {
     	    if (chainsOld[i] != null) {
-    	        for (KVPair pair : chainsOld[i]) {
-    	            K key = (K) pair.getKey();
-    	            V value = (V) pair.getValue();
-    	            int hashValue = hashValue(key);
-    	            ensureArrayDictionary(hashValue);
-    	            chains[hashValue].put(key, value);
-    	        }
+    	        moveChain(chainsOld[i]);
+    	    }
+    	}
+    }
+
+    /**
+     * Rehashes every pair in the given chain into the current table
+     */
+    private void moveChain(IDictionary<K, V> chain) {
+    	for (KVPair<K, V> pair : chain) {
+    	    K key = pair.getKey();
+    	    int hashValue = hashValue(key);
+    	    ensureArrayDictionary(hashValue);
+    	    chains[hashValue].put(key, pair.getValue());
+    	    rebuildChainIfNeeded(chains, hashValue);
+    	}
+    }
+
+    /**
+     * Moves up to the given number of buckets from oldChains into chains,
+     * dropping oldChains once every bucket has been moved
+     */
+    private void migrateStep(int buckets) {
+    	if (oldChains == null) {
+    	    return;
+    	}
+    	int end = migrationIndex + Math.min(buckets, oldChains.length - migrationIndex);
+    	for (; migrationIndex < end; migrationIndex++) {
+    	    if (oldChains[migrationIndex] != null) {
+    	        moveChain(oldChains[migrationIndex]);
+    	        oldChains[migrationIndex] = null;
+    	    }
+    	}
+    	if (migrationIndex == oldChains.length) {
+    	    oldChains = null;
+    	}
+    }
+
+    /**
+     * Returns the chain currently holding the given key, or null if no chain does
+     */
+    private IDictionary<K, V> findChain(K key) {
+    	IDictionary<K, V>[] table = findTable(key);
+    	return table == null ? null : table[hashValue(key, table)];
+    }
+
+    /**
+     * Returns whichever of chains and oldChains holds the given key, or null if neither does
+     */
+    private IDictionary<K, V>[] findTable(K key) {
+    	IDictionary<K, V> chain = chains[hashValue(key)];
+    	if (chain != null && chain.containsKey(key)) {
+    	    return chains;
+    	}
+    	if (oldChains != null) {
+    	    chain = oldChains[hashValue(key, oldChains)];
+    	    if (chain != null && chain.containsKey(key)) {
+    	        return oldChains;
     	    }
     	}
+    	return null;
+    }
+
+    /**
+     * Swaps the chain at the given element for a TreeBucketDictionary once it
+     * grows past TREEIFY_THRESHOLD, and back to a CompactArrayDictionary once it
+     * shrinks below UNTREEIFY_THRESHOLD
+     */
+    private void rebuildChainIfNeeded(IDictionary<K, V>[] table, int hashValue) {
+    	IDictionary<K, V> chain = table[hashValue];
+    	IDictionary<K, V> rebuilt;
+    	if (chain instanceof CompactArrayDictionary && chain.size() > TREEIFY_THRESHOLD) {
+    	    rebuilt = new TreeBucketDictionary<>(strategy);
+    	} else if (chain instanceof TreeBucketDictionary && chain.size() < UNTREEIFY_THRESHOLD) {
+    	    rebuilt = new CompactArrayDictionary<>(strategy);
+    	} else {
+    	    return;
+    	}
+    	for (KVPair<K, V> pair : chain) {
+    	    rebuilt.put(pair.getKey(), pair.getValue());
+    	}
+    	table[hashValue] = rebuilt;
     }
     
+    /**
+     * Fixes up the chain at the given element after a pair was added to it.
+     * A chain that is too long is a sign of keys chosen to collide, so if the
+     * strategy can be reseeded the whole table is rehashed instead
+     */
+    private void chainGrew(IDictionary<K, V>[] table, int hashValue) {
+    	if (table[hashValue].size() > TREEIFY_THRESHOLD && reseed()) {
+    	    return; //every chain has been rebuilt
+    	}
+    	rebuildChainIfNeeded(table, hashValue);
+    }
+
+    /**
+     * Rehashes every pair into a fresh table of the same length using a newly
+     * seeded strategy. Returns false, doing nothing, if the strategy has no
+     * seed or the table was already reseeded since the pair count last doubled
+     * (keys whose collisions don't depend on the seed would otherwise trigger
+     * a rehash on every put)
+     */
+    private boolean reseed() {
+    	if (numPairs < 2 * pairsAtLastReseed) {
+    	    return false;
+    	}
+    	HashStrategy<K> reseeded = strategy.reseed();
+    	if (reseeded == null) {
+    	    return false;
+    	}
+    	migrateStep(Integer.MAX_VALUE);
+    	strategy = reseeded;
+    	pairsAtLastReseed = numPairs;
+    	IDictionary<K, V>[] chainsOld = chains;
+    	chains = makeArrayOfChains(chains.length);
+    	for (IDictionary<K, V> chain : chainsOld) {
+    	    if (chain != null) {
+    	        moveChain(chain);
+    	    }
+    	}
+    	return true;
+    }
+
     /**
      * If the chains array's given element is null, creates a new
-     * arrayDictionary at that element
+     * CompactArrayDictionary at that element
      * @param hashValue: The element for which you want to check
      */
     private void ensureArrayDictionary(int hashValue) {
     	if (chains[hashValue] == null) {
-            chains[hashValue] = new ArrayDictionary();
+            chains[hashValue] = new CompactArrayDictionary<>(strategy);
     	}
     }
     
@@ -91,11 +280,41 @@ public class ChainedHashDictionary<K, V> implements IDictionary<K, V> {
      * @param key: The key for which value is needed
      * @return: The value for the specified key
      */
+    @SuppressWarnings("unchecked")
     public V get(K key) {
-    	if (!containsKey(key)) {
+    	if (oldChains == null) {
+    	    IDictionary<K, V> chain = chains[hashValue(key)];
+    	    if (chain == null) {
+    	        throw new NoSuchKeyException();
+    	    }
+    	    return chain.get(key); //throws NoSuchKeyException itself if the chain lacks the key
+    	}
+    	V value = getOrDefault(key, (V) MISSING);
+    	if (value == MISSING) {
     	    throw new NoSuchKeyException();
     	}
-        return chains[hashValue(key)].get(key);
+        return value;
+    }
+
+    /**
+     * Returns the value for the given key, or the default value if the key
+     * doesn't exist, scanning the key's chain only once
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(K key, V defaultValue) {
+    	migrateStep(MIGRATION_STEP);
+    	IDictionary<K, V> chain = chains[hashValue(key)];
+    	if (oldChains == null) {
+    	    return chain == null ? defaultValue : chain.getOrDefault(key, defaultValue);
+    	}
+    	// Each key is in exactly one table, so one scan of each chain is enough
+    	V value = chain == null ? (V) MISSING : chain.getOrDefault(key, (V) MISSING);
+    	if (value != MISSING) {
+    	    return value;
+    	}
+    	chain = oldChains[hashValue(key, oldChains)];
+    	return chain == null ? defaultValue : chain.getOrDefault(key, defaultValue);
     }
 
     /**
@@ -104,18 +323,103 @@ public class ChainedHashDictionary<K, V> implements IDictionary<K, V> {
      * @param value: The value for the data that's being put into the hashDictionary
      */
     public void put(K key, V value) {
+    	migrateStep(MIGRATION_STEP);
+    	if (oldChains != null) {
+    	    IDictionary<K, V> oldChain = oldChains[hashValue(key, oldChains)];
+    	    if (oldChain != null && oldChain.containsKey(key)) { //not migrated yet, update in place
+    	        oldChain.put(key, value);
+    	        return;
+    	    }
+    	}
     	int hashValue = hashValue(key);
     	ensureArrayDictionary(hashValue);
-    	if (!chains[hashValue].containsKey(key)) {
+    	IDictionary<K, V> chain = chains[hashValue];
+    	int chainSize = chain.size();
+    	chain.put(key, value);
+    	if (chain.size() > chainSize) {
     	    numPairs++;
+    	    chainGrew(chains, hashValue);
+    	    resizeIfNeeded();
     	}
-    	chains[hashValue].put(key, value);
-    	
+    }
+
+    /**
+     * Grows the table once the load factor has been reached
+     */
+    private void resizeIfNeeded() {
     	if (1.0 * numPairs / chains.length >= LOAD_FACTOR) { //1.0 in order to cast to double
+    	    migrateStep(Integer.MAX_VALUE); //a previous resize must finish before the next begins
             resize();
     	}
-        
-        
+    }
+
+    /**
+     * Locates the chain the given key lives in (or would be added to) exactly
+     * once, runs the given operation on it, then fixes up the pair count,
+     * the chain's representation and the table size to match
+     */
+    private <R> R updateChain(K key, Function<IDictionary<K, V>, R> operation) {
+    	migrateStep(MIGRATION_STEP);
+    	IDictionary<K, V>[] table = chains;
+    	int hashValue = hashValue(key);
+    	if (oldChains != null) {
+    	    int oldHashValue = hashValue(key, oldChains);
+    	    if (oldChains[oldHashValue] != null && oldChains[oldHashValue].containsKey(key)) {
+    	        table = oldChains;
+    	        hashValue = oldHashValue;
+    	    }
+    	}
+    	if (table[hashValue] == null) {
+    	    table[hashValue] = new CompactArrayDictionary<>(strategy);
+    	}
+    	IDictionary<K, V> chain = table[hashValue];
+    	int chainSize = chain.size();
+    	R result = operation.apply(chain);
+    	if (chain.size() > chainSize) {
+    	    numPairs += chain.size() - chainSize;
+    	    chainGrew(table, hashValue);
+    	    resizeIfNeeded();
+    	} else if (chain.size() < chainSize) {
+    	    numPairs += chain.size() - chainSize;
+    	    rebuildChainIfNeeded(table, hashValue);
+    	}
+    	return result;
+    }
+
+    /**
+     * Adds the key-value pair if the key is absent. Returns the existing
+     * value, or null if the pair was added
+     */
+    @Override
+    public V putIfAbsent(K key, V value) {
+    	return updateChain(key, chain -> chain.putIfAbsent(key, value));
+    }
+
+    /**
+     * Adds a computed value for the key if it is absent. Returns the value now
+     * associated with the key
+     */
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+    	return updateChain(key, chain -> chain.computeIfAbsent(key, mappingFunction));
+    }
+
+    /**
+     * Replaces, adds or removes the key's value as the function decides.
+     * Returns the new value, or null if there is none
+     */
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+    	return updateChain(key, chain -> chain.compute(key, remappingFunction));
+    }
+
+    /**
+     * Adds the value, or combines it with the existing one. Returns the new
+     * value, or null if the key was removed
+     */
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+    	return updateChain(key, chain -> chain.merge(key, value, remappingFunction));
     }
 
     /**
@@ -126,11 +430,16 @@ public class ChainedHashDictionary<K, V> implements IDictionary<K, V> {
      * @return: Returns the value for the given key
      */
     public V remove(K key) {
-    	if (!containsKey(key)) {
+    	migrateStep(MIGRATION_STEP);
+    	IDictionary<K, V>[] table = oldChains == null ? chains : findTable(key);
+    	IDictionary<K, V> chain = table == null ? null : table[hashValue(key, table)];
+    	if (chain == null) {
     	    throw new NoSuchKeyException();
     	}
+    	V value = chain.remove(key); //throws NoSuchKeyException itself if the chain lacks the key
     	numPairs--;
-        return chains[hashValue(key)].remove(key);
+    	rebuildChainIfNeeded(table, hashValue(key, table));
+        return value;
     }
 
     /**
@@ -139,10 +448,12 @@ public class ChainedHashDictionary<K, V> implements IDictionary<K, V> {
      * @return: Returns true if the hashDictionary contains the key, false otherwise
      */
     public boolean containsKey(K key) {
-    	if (chains[hashValue(key)] == null) {
-            return false;
+    	migrateStep(MIGRATION_STEP);
+    	if (oldChains == null) {
+    	    IDictionary<K, V> chain = chains[hashValue(key)];
+    	    return chain != null && chain.containsKey(key);
     	}
-        return chains[hashValue(key)].containsKey(key);
+        return findChain(key) != null;
     }
 
     /**
@@ -153,12 +464,194 @@ public class ChainedHashDictionary<K, V> implements IDictionary<K, V> {
         return numPairs;
     }
 
+    /**
+     * Calls the action on each pair, letting every chain loop over its own storage
+     */
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+    	migrateStep(Integer.MAX_VALUE);
+    	for (IDictionary<K, V> chain : chains) {
+    	    if (chain != null) {
+    	        chain.forEach(action);
+    	    }
+    	}
+    	if (oldChains != null) {
+    	    for (IDictionary<K, V> chain : oldChains) {
+    	        if (chain != null) {
+    	            chain.forEach(action);
+    	        }
+    	    }
+    	}
+    }
+
+    /**
+     * Returns a cursor for ChainedHashDictionary. It reads CompactArrayDictionary
+     * chains by index, so walking them allocates nothing.
+     */
+    @Override
+    public ICursor<K, V> cursor() {
+    	migrateStep(Integer.MAX_VALUE);
+    	return new ChainedCursor();
+    }
+
+    private class ChainedCursor implements ICursor<K, V> {
+        private IDictionary<K, V>[] table;
+        // Table still being migrated from, walked once table is exhausted (may be null)
+        private IDictionary<K, V>[] pendingTable;
+        private int chainIndex;
+        // Exactly one of these is set while positioned inside a chain
+        private CompactArrayDictionary<K, V> arrayChain;
+        private int entryIndex;
+        private ICursor<K, V> otherChain;
+
+        public ChainedCursor() {
+            reset();
+        }
+
+        public void reset() {
+            table = chains;
+            pendingTable = oldChains;
+            chainIndex = -1;
+            arrayChain = null;
+            otherChain = null;
+        }
+
+        public boolean advance() {
+            while (true) {
+                if (arrayChain != null && ++entryIndex < arrayChain.size()) {
+                    return true;
+                }
+                if (otherChain != null && otherChain.advance()) {
+                    return true;
+                }
+                arrayChain = null;
+                otherChain = null;
+                if (chainIndex + 1 >= table.length) {
+                    if (pendingTable == null) {
+                        chainIndex = table.length;
+                        return false;
+                    }
+                    table = pendingTable;
+                    pendingTable = null;
+                    chainIndex = -1;
+                    continue;
+                }
+                chainIndex++;
+                IDictionary<K, V> chain = table[chainIndex];
+                if (chain instanceof CompactArrayDictionary) {
+                    arrayChain = (CompactArrayDictionary<K, V>) chain;
+                    entryIndex = -1;
+                } else if (chain != null) {
+                    otherChain = chain.cursor();
+                }
+            }
+        }
+
+        public K key() {
+            return arrayChain != null ? arrayChain.keyAt(entryIndex) : otherChain.key();
+        }
+
+        public V value() {
+            return arrayChain != null ? arrayChain.valueAt(entryIndex) : otherChain.value();
+        }
+    }
+
+    /**
+     * Returns a spliterator that splits the chains array into index ranges,
+     * so parallel streams can hand each core its own run of buckets
+     */
+    @Override
+    public Spliterator<KVPair<K, V>> spliterator() {
+    	migrateStep(Integer.MAX_VALUE);
+    	int length = chains.length + (oldChains == null ? 0 : oldChains.length);
+    	return new ChainedSpliterator<>(chains, oldChains, 0, length, numPairs, true);
+    }
+
+    /**
+     * Covers the chain indexes [index, fence). While an incremental resize is
+     * running, indexes past chains.length refer to oldChains, so one range
+     * spans both tables.
+     */
+    private static class ChainedSpliterator<K, V> implements Spliterator<KVPair<K, V>> {
+        private final IDictionary<K, V>[] chains;
+        private final IDictionary<K, V>[] oldChains;
+        private int index;
+        private final int fence;
+        private long estimate;
+        // Only a spliterator that was never split knows its exact size
+        private boolean exact;
+        // Pairs of the chain at index - 1 that tryAdvance hasn't handed out yet
+        private Iterator<KVPair<K, V>> current;
+
+        public ChainedSpliterator(IDictionary<K, V>[] chains, IDictionary<K, V>[] oldChains,
+                                  int index, int fence, long estimate, boolean exact) {
+            this.chains = chains;
+            this.oldChains = oldChains;
+            this.index = index;
+            this.fence = fence;
+            this.estimate = estimate;
+            this.exact = exact;
+            this.current = null;
+        }
+
+        private IDictionary<K, V> chainAt(int i) {
+            return i < chains.length ? chains[i] : oldChains[i - chains.length];
+        }
+
+        public boolean tryAdvance(Consumer<? super KVPair<K, V>> action) {
+            while (current == null || !current.hasNext()) {
+                if (index >= fence) {
+                    return false;
+                }
+                IDictionary<K, V> chain = chainAt(index++);
+                current = chain == null ? null : chain.iterator();
+            }
+            action.accept(current.next());
+            return true;
+        }
+
+        public void forEachRemaining(Consumer<? super KVPair<K, V>> action) {
+            while (current != null && current.hasNext()) {
+                action.accept(current.next());
+            }
+            current = null;
+            for (; index < fence; index++) {
+                IDictionary<K, V> chain = chainAt(index);
+                if (chain != null) {
+                    chain.forEach((key, value) -> action.accept(new KVPair<>(key, value)));
+                }
+            }
+        }
+
+        public Spliterator<KVPair<K, V>> trySplit() {
+            int middle = (index + fence) >>> 1;
+            if (current != null || middle <= index) {
+                return null;
+            }
+            estimate >>>= 1;
+            exact = false;
+            ChainedSpliterator<K, V> prefix =
+                    new ChainedSpliterator<>(chains, oldChains, index, middle, estimate, false);
+            index = middle;
+            return prefix;
+        }
+
+        public long estimateSize() {
+            return estimate;
+        }
+
+        public int characteristics() {
+            return exact ? Spliterator.DISTINCT | Spliterator.SIZED : Spliterator.DISTINCT;
+        }
+    }
+
     /**
     * Returns the iterator for ChainedHashDictionary
     */
     public Iterator<KVPair<K, V>> iterator() {
         // Note: you do not need to change this method
-        return new ChainedIterator<>(this.chains);
+        migrateStep(Integer.MAX_VALUE); //so get() calls made while iterating have nothing left to move
+        return new ChainedIterator<>(this.chains, this.oldChains);
     }
 
     /**
@@ -201,9 +694,12 @@ public class ChainedHashDictionary<K, V> implements IDictionary<K, V> {
         private IDictionary<K, V>[] chains;
         private int index;
         private Iterator<KVPair<K, V>> nestedIterator; 
+        // Table still being migrated from, visited once chains is exhausted (may be null)
+        private IDictionary<K, V>[] pendingChains;
 
-        public ChainedIterator(IDictionary<K, V>[] chains) {
+        public ChainedIterator(IDictionary<K, V>[] chains, IDictionary<K, V>[] pendingChains) {
             this.chains = chains;
+            this.pendingChains = pendingChains;
             index = 0;
             nestedIterator = findNextIterator();
         }
@@ -213,28 +709,32 @@ public class ChainedHashDictionary<K, V> implements IDictionary<K, V> {
          * @return: Returns the next iterator if there is one, null otherwise
          */
         private Iterator<KVPair<K, V>> findNextIterator() {
-            while (index < chains.length) {
-                if (chains[index] != null) {
-                    return chains[index].iterator();
+            while (true) {
+                while (index < chains.length) {
+                    if (chains[index] != null) {
+                        return chains[index].iterator();
+                    }
+                    index++;
+                }
+                if (pendingChains == null) {
+                    return null;
                 }
-                index++;
+                chains = pendingChains;
+                pendingChains = null;
+                index = 0;
             }
-            return null;
         }
 
         /**
          * Returns true if there is another array dictionary that is not null, false otherwise
          */
         public boolean hasNext() {
-            if (nestedIterator == null) {
-                return false;
-            } else if (nestedIterator.hasNext()) {
-                return true;
-            } else {
+            // A chain emptied by remove() stays in place, so skip any number of them
+            while (nestedIterator != null && !nestedIterator.hasNext()) {
             	index++;
             	nestedIterator = findNextIterator();
-            	return nestedIterator != null;
             }
+            return nestedIterator != null;
         }
 
         /**
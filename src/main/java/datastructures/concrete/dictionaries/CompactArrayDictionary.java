@@ -0,0 +1,367 @@
+package datastructures.concrete.dictionaries;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import datastructures.concrete.KVPair;
+import datastructures.interfaces.ICursor;
+import datastructures.interfaces.IDictionary;
+import misc.exceptions.NoSuchKeyException;
+
+/**
+ * An unordered array dictionary laid out as parallel arrays instead of one
+ * Pair object per entry.
+ *
+ * Keys and values live in two Object arrays, and each key's hash code is
+ * cached in an int array next to them. A lookup compares the cached hashes
+ * first and only calls equals() when they match, so a scan mostly reads one
+ * contiguous int array. Removal moves the last entry into the freed index
+ * instead of shifting everything after it, so it is O(1) once the key is
+ * found, at the cost of not keeping insertion order.
+ *
+ * Keys are hashed and compared with a HashStrategy, by default their own
+ * hashCode() and equals().
+ *
+ * This is the chain type ChainedHashDictionary uses for short buckets.
+ *
+ * See IDictionary for more details on what each method should do.
+ */
+public class CompactArrayDictionary<K, V> implements IDictionary<K, V> {
+    private static final int DEFAULT_CAPACITY = 4;
+
+    // Invariants:
+    //  - keys.length == values.length == hashes.length
+    //  - indexes [0, size) hold the entries, and hashes[i] == strategy.hash(keys[i])
+    //  - every index at or past size is null in keys and values
+    private Object[] keys;
+    private Object[] values;
+    private int[] hashes;
+    private int size;
+    private final HashStrategy<K> strategy;
+
+    public CompactArrayDictionary() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty dictionary with room for the given number of pairs
+     * before its arrays need to grow
+     */
+    public CompactArrayDictionary(int initialCapacity) {
+        this(initialCapacity, HashStrategy.natural());
+    }
+
+    /**
+     * Creates an empty dictionary that hashes and compares keys with the given strategy
+     */
+    public CompactArrayDictionary(HashStrategy<K> strategy) {
+        this(DEFAULT_CAPACITY, strategy);
+    }
+
+    public CompactArrayDictionary(int initialCapacity, HashStrategy<K> strategy) {
+        if (initialCapacity < 1) {
+            throw new IllegalArgumentException();
+        }
+        keys = new Object[initialCapacity];
+        values = new Object[initialCapacity];
+        hashes = new int[initialCapacity];
+        size = 0;
+        this.strategy = strategy;
+    }
+
+    /**
+     * Finds and returns the index of a given key.
+     * If the key does not exist, returns -1.
+     */
+    @SuppressWarnings("unchecked")
+    private int getIndex(K key) {
+        int hash = strategy.hash(key);
+        for (int i = 0; i < size; i++) {
+            if (hashes[i] == hash) {
+                K other = (K) keys[i];
+                if (key == other || strategy.equals(key, other)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the value corresponding to the given key.
+     * Throws NoSuchKeyException if the dictionary does not contain the given key.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        int index = getIndex(key);
+        if (index == -1) {
+            throw new NoSuchKeyException();
+        }
+        return (V) values[index];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(K key, V defaultValue) {
+        int index = getIndex(key);
+        return index == -1 ? defaultValue : (V) values[index];
+    }
+
+    /**
+     * Adds the key-value pair to the dictionary. If the key already exists in the dictionary,
+     * replace its value with the given one.
+     */
+    @Override
+    public void put(K key, V value) {
+        int index = getIndex(key);
+        if (index == -1) {
+            append(key, value);
+        } else {
+            values[index] = value;
+        }
+    }
+
+    /**
+     * Adds a pair for a key known not to be in the dictionary yet
+     */
+    private void append(K key, V value) {
+        if (size == keys.length) {
+            int capacity = keys.length * 2;
+            Object[] newKeys = new Object[capacity];
+            Object[] newValues = new Object[capacity];
+            int[] newHashes = new int[capacity];
+            System.arraycopy(keys, 0, newKeys, 0, size);
+            System.arraycopy(values, 0, newValues, 0, size);
+            System.arraycopy(hashes, 0, newHashes, 0, size);
+            keys = newKeys;
+            values = newValues;
+            hashes = newHashes;
+        }
+        keys[size] = key;
+        values[size] = value;
+        hashes[size] = strategy.hash(key);
+        size++;
+    }
+
+    /**
+     * Adds the key-value pair if the key is absent, scanning the arrays once.
+     * Returns the existing value, or null if the pair was added.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V putIfAbsent(K key, V value) {
+        int index = getIndex(key);
+        if (index != -1) {
+            return (V) values[index];
+        }
+        append(key, value);
+        return null;
+    }
+
+    /**
+     * Adds a computed value for the key if it is absent, scanning the arrays once.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        int index = getIndex(key);
+        if (index != -1) {
+            return (V) values[index];
+        }
+        V value = mappingFunction.apply(key);
+        if (value != null) {
+            append(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Replaces, adds or removes the key's value as the function decides, scanning the arrays once.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        int index = getIndex(key);
+        V value = remappingFunction.apply(key, index == -1 ? null : (V) values[index]);
+        if (value == null) {
+            if (index != -1) {
+                removeAt(index);
+            }
+        } else if (index == -1) {
+            append(key, value);
+        } else {
+            values[index] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Adds the value, or combines it with the existing one, scanning the arrays once.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        int index = getIndex(key);
+        if (index == -1) {
+            append(key, value);
+            return value;
+        }
+        V newValue = remappingFunction.apply((V) values[index], value);
+        if (newValue == null) {
+            removeAt(index);
+        } else {
+            values[index] = newValue;
+        }
+        return newValue;
+    }
+
+    /**
+     * Remove the key-value pair corresponding to the given key from the dictionary.
+     * If the dictionary does not contain the given key, throw NoSuchKeyException.
+     */
+    @Override
+    public V remove(K key) {
+        int index = getIndex(key);
+        if (index == -1) {
+            throw new NoSuchKeyException();
+        }
+        return removeAt(index);
+    }
+
+    /**
+     * Removes the pair at the given index by moving the last pair into it, and returns its value
+     */
+    @SuppressWarnings("unchecked")
+    private V removeAt(int index) {
+        V value = (V) values[index];
+        int last = size - 1;
+        keys[index] = keys[last];
+        values[index] = values[last];
+        hashes[index] = hashes[last];
+        keys[last] = null;
+        values[last] = null;
+        size--;
+        return value;
+    }
+
+    /**
+     * Returns 'true' if the dictionary contains the given key and 'false' otherwise.
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return getIndex(key) != -1;
+    }
+
+    /**
+     * Returns the number of key-value pairs stored in this dictionary.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the key stored at the given index. Lets ChainedHashDictionary
+     * walk its chains without creating an iterator or KVPair per pair.
+     */
+    @SuppressWarnings("unchecked")
+    K keyAt(int index) {
+        return (K) keys[index];
+    }
+
+    /**
+     * Returns the value stored at the given index.
+     */
+    @SuppressWarnings("unchecked")
+    V valueAt(int index) {
+        return (V) values[index];
+    }
+
+    /**
+     * Calls the action on each pair in a plain loop over the arrays
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < size; i++) {
+            action.accept((K) keys[i], (V) values[i]);
+        }
+    }
+
+    /**
+     * Returns a cursor that reads the arrays directly
+     */
+    @Override
+    public ICursor<K, V> cursor() {
+        return new CompactCursor();
+    }
+
+    private class CompactCursor implements ICursor<K, V> {
+        private int index = -1;
+
+        public boolean advance() {
+            if (index < size) {
+                index++;
+            }
+            return index < size;
+        }
+
+        public K key() {
+            return keyAt(index);
+        }
+
+        public V value() {
+            return valueAt(index);
+        }
+
+        public void reset() {
+            index = -1;
+        }
+    }
+
+    /**
+     * Returns the iterator for CompactArrayDictionary
+     */
+    @Override
+    public Iterator<KVPair<K, V>> iterator() {
+        return new CompactIterator<>(keys, values, size);
+    }
+
+    private static class CompactIterator<K, V> implements Iterator<KVPair<K, V>> {
+        private final Object[] keys;
+        private final Object[] values;
+        private final int size;
+        private int index;
+
+        public CompactIterator(Object[] keys, Object[] values, int size) {
+            this.keys = keys;
+            this.values = values;
+            this.size = size;
+            this.index = 0;
+        }
+
+        /**
+         * Returns 'true' if the iterator still has elements to look at;
+         * returns 'false' otherwise.
+         */
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        /**
+         * Returns the next KVPair, throws a NoSuchElementException if there isn't one
+         */
+        @SuppressWarnings("unchecked")
+        public KVPair<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            index++;
+            return new KVPair<>((K) keys[index - 1], (V) values[index - 1]);
+        }
+    }
+}
@@ -0,0 +1,529 @@
+package datastructures.concrete.dictionaries;
+
+import datastructures.concrete.KVPair;
+import datastructures.interfaces.IDictionary;
+import misc.exceptions.NoSuchKeyException;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A thread-safe chained hash dictionary.
+ *
+ * - Reads take no locks. Buckets are read through an AtomicReferenceArray
+ *   (volatile semantics) and chain links are final, so a reader always sees a
+ *   consistent chain even while writers are working on the same bucket.
+ * - Writes lock one of a fixed number of stripes. The stripe count is a power
+ *   of two no larger than any table, so a bucket and both of the buckets it
+ *   splits into on resize are always guarded by the same stripe.
+ * - Resizing is cooperative. Once a new table is allocated, every writer that
+ *   notices it claims a range of old buckets, moves them over and leaves a
+ *   forwarding marker behind. Readers that hit a marker follow it to the new table.
+ * - Iterators are weakly consistent: they never throw because of concurrent
+ *   updates and see every entry that was present when iteration began and not
+ *   removed since, but may or may not see later changes.
+ *
+ * See IDictionary for more details on what each method should do.
+ */
+public class ConcurrentChainedHashDictionary<K, V> implements IDictionary<K, V> {
+    private static final double LOAD_FACTOR = 0.75;
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 64;
+    // Number of old buckets a writer claims at a time while helping a resize
+    private static final int TRANSFER_STRIDE = 16;
+    // Hash of the forwarding marker; real hashes are always non-negative
+    private static final int MOVED = -1;
+    // Stand-in for the null key, since chain nodes need something to compare against
+    private static final Object NULL_KEY = new Object();
+    // Decisions an update() callback can return instead of a new value
+    private static final Object KEEP = new Object();
+    private static final Object REMOVE = new Object();
+
+    private final AtomicReference<Table<K, V>> table;
+    private final Object[] locks;
+    private final LongAdder count;
+
+    public ConcurrentChainedHashDictionary() {
+        this(DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Creates an empty dictionary whose writers are spread over at least
+     * concurrencyLevel independent locks.
+     */
+    public ConcurrentChainedHashDictionary(int concurrencyLevel) {
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("concurrencyLevel must be positive");
+        }
+        int stripes = 1;
+        while (stripes < concurrencyLevel) {
+            stripes *= 2;
+        }
+        locks = new Object[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new Object();
+        }
+        table = new AtomicReference<>(new Table<>(Math.max(16, stripes)));
+        count = new LongAdder();
+    }
+
+    /**
+     * Returns the key actually stored in the chain for the given key
+     */
+    private static Object maskNull(Object key) {
+        return key == null ? NULL_KEY : key;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> K unmaskNull(Object key) {
+        return key == NULL_KEY ? null : (K) key;
+    }
+
+    /**
+     * Spreads the high bits of the hash code down and clears the sign bit,
+     * so every real hash is distinct from MOVED
+     */
+    private static int spread(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & 0x7fffffff;
+    }
+
+    private static boolean keysEqual(Object a, Object b) {
+        return a == b || a.equals(b);
+    }
+
+    private Object lockFor(int bucket) {
+        return locks[bucket & (locks.length - 1)];
+    }
+
+    /**
+     * Returns the node holding the given key, following forwarding markers
+     * to newer tables as needed. Returns null if the key is absent.
+     */
+    private Node<K, V> findNode(Object key) {
+        int hash = spread(key);
+        Table<K, V> t = table.get();
+        while (true) {
+            Node<K, V> node = t.buckets.get(hash & (t.length() - 1));
+            if (node != null && node.hash == MOVED) {
+                t = t.next;
+                continue;
+            }
+            for (; node != null; node = node.next) {
+                if (node.hash == hash && keysEqual(key, node.key)) {
+                    return node;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Returns the value for the given key. Throws a NoSuchKeyException if the
+     * key doesn't exist in the dictionary
+     */
+    @Override
+    public V get(K key) {
+        Node<K, V> node = findNode(maskNull(key));
+        if (node == null) {
+            throw new NoSuchKeyException();
+        }
+        return node.value;
+    }
+
+    @Override
+    public V getOrDefault(K key, V defaultValue) {
+        Node<K, V> node = findNode(maskNull(key));
+        return node == null ? defaultValue : node.value;
+    }
+
+    /**
+     * Returns true if the dictionary contains the key, false otherwise
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return findNode(maskNull(key)) != null;
+    }
+
+    /**
+     * Puts the given key and value into the dictionary, replacing the old
+     * value if the key already exists
+     */
+    @Override
+    public void put(K key, V value) {
+        Object k = maskNull(key);
+        int hash = spread(k);
+        Table<K, V> t = table.get();
+        while (true) {
+            if (t.next != null) {
+                helpTransfer(t);
+            }
+            int bucket = hash & (t.length() - 1);
+            synchronized (lockFor(bucket)) {
+                Node<K, V> head = t.buckets.get(bucket);
+                if (head != null && head.hash == MOVED) {
+                    t = t.next;
+                    continue;
+                }
+                for (Node<K, V> node = head; node != null; node = node.next) {
+                    if (node.hash == hash && keysEqual(k, node.key)) {
+                        node.value = value;
+                        return;
+                    }
+                }
+                t.buckets.set(bucket, new Node<>(hash, k, value, head));
+            }
+            count.increment();
+            maybeResize(t);
+            return;
+        }
+    }
+
+    /**
+     * Removes the given key and returns its value. Throws a NoSuchKeyException
+     * if the key doesn't exist in the dictionary
+     */
+    @Override
+    public V remove(K key) {
+        Object k = maskNull(key);
+        int hash = spread(k);
+        Table<K, V> t = table.get();
+        while (true) {
+            if (t.next != null) {
+                helpTransfer(t);
+            }
+            int bucket = hash & (t.length() - 1);
+            synchronized (lockFor(bucket)) {
+                Node<K, V> head = t.buckets.get(bucket);
+                if (head != null && head.hash == MOVED) {
+                    t = t.next;
+                    continue;
+                }
+                Node<K, V> target = head;
+                while (target != null && !(target.hash == hash && keysEqual(k, target.key))) {
+                    target = target.next;
+                }
+                if (target == null) {
+                    throw new NoSuchKeyException();
+                }
+                t.buckets.set(bucket, unlink(head, target));
+                count.decrement();
+                return target.value;
+            }
+        }
+    }
+
+    /**
+     * Atomically adds the key-value pair if the key is absent. Returns the
+     * existing value, or null if the pair was added
+     */
+    @Override
+    public V putIfAbsent(K key, V value) {
+        return update(key, node -> node == null ? value : KEEP, false);
+    }
+
+    /**
+     * Atomically adds a computed value for the key if it is absent. The
+     * function runs while the key's stripe is locked, so it should be short
+     * and must not touch this dictionary.
+     */
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        Node<K, V> existing = findNode(maskNull(key));
+        if (existing != null) {
+            return existing.value;
+        }
+        return update(key, node -> {
+            if (node != null) {
+                return KEEP;
+            }
+            V value = mappingFunction.apply(key);
+            return value == null ? KEEP : value;
+        }, true);
+    }
+
+    /**
+     * Atomically replaces, adds or removes the key's value as the function
+     * decides. The function runs while the key's stripe is locked.
+     */
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        return update(key, node -> {
+            V value = remappingFunction.apply(key, node == null ? null : node.value);
+            if (value == null) {
+                return node == null ? KEEP : REMOVE;
+            }
+            return value;
+        }, true);
+    }
+
+    /**
+     * Atomically adds the value, or combines it with the existing one. The
+     * function runs while the key's stripe is locked.
+     */
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        return update(key, node -> {
+            if (node == null) {
+                return value;
+            }
+            V newValue = remappingFunction.apply(node.value, value);
+            return newValue == null ? REMOVE : newValue;
+        }, true);
+    }
+
+    /**
+     * Locks the key's stripe, finds its node (null if absent) and hands it to
+     * decide, which returns the value to store, KEEP or REMOVE. Returns the
+     * value the key now has if returnNew is set, or the value it had before otherwise.
+     */
+    @SuppressWarnings("unchecked")
+    private V update(K key, Function<Node<K, V>, Object> decide, boolean returnNew) {
+        Object k = maskNull(key);
+        int hash = spread(k);
+        Table<K, V> t = table.get();
+        while (true) {
+            if (t.next != null) {
+                helpTransfer(t);
+            }
+            int bucket = hash & (t.length() - 1);
+            V previous;
+            Object decision;
+            synchronized (lockFor(bucket)) {
+                Node<K, V> head = t.buckets.get(bucket);
+                if (head != null && head.hash == MOVED) {
+                    t = t.next;
+                    continue;
+                }
+                Node<K, V> target = head;
+                while (target != null && !(target.hash == hash && keysEqual(k, target.key))) {
+                    target = target.next;
+                }
+                previous = target == null ? null : target.value;
+                decision = decide.apply(target);
+                if (decision == KEEP) {
+                    return previous;
+                } else if (decision == REMOVE) {
+                    t.buckets.set(bucket, unlink(head, target));
+                    count.decrement();
+                    return returnNew ? null : previous;
+                } else if (target != null) {
+                    target.value = (V) decision;
+                    return returnNew ? (V) decision : previous;
+                }
+                t.buckets.set(bucket, new Node<>(hash, k, (V) decision, head));
+            }
+            count.increment();
+            maybeResize(t);
+            return returnNew ? (V) decision : previous;
+        }
+    }
+
+    /**
+     * Returns a copy of the chain starting at head with the target node left out.
+     * Links are final, so the nodes in front of the target are copied onto the
+     * rest of the chain; readers keep seeing the old chain.
+     */
+    private static <K, V> Node<K, V> unlink(Node<K, V> head, Node<K, V> target) {
+        Node<K, V> rebuilt = target.next;
+        for (Node<K, V> node = head; node != target; node = node.next) {
+            rebuilt = new Node<>(node.hash, node.key, node.value, rebuilt);
+        }
+        return rebuilt;
+    }
+
+    /**
+     * Returns the number of key-value pairs in the dictionary. While other
+     * threads are writing, this is only an estimate.
+     */
+    @Override
+    public int size() {
+        long sum = count.sum();
+        return sum > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) Math.max(0, sum);
+    }
+
+    /**
+     * Starts a resize of the given table if it has passed the load factor
+     * and no resize is already underway, then helps it along
+     */
+    private void maybeResize(Table<K, V> t) {
+        if (t.next == null && count.sum() >= t.length() * LOAD_FACTOR) {
+            synchronized (t) {
+                if (t.next == null && table.get() == t) {
+                    t.next = new Table<>(t.length() * 2);
+                }
+            }
+        }
+        if (t.next != null) {
+            helpTransfer(t);
+        }
+    }
+
+    /**
+     * Claims ranges of not-yet-moved buckets in the given table and moves
+     * them to its successor until no unclaimed buckets remain. Whoever
+     * finishes the last range publishes the new table.
+     */
+    private void helpTransfer(Table<K, V> t) {
+        Table<K, V> next = t.next;
+        int length = t.length();
+        int start;
+        while ((start = t.transferIndex.getAndAdd(TRANSFER_STRIDE)) < length) {
+            int end = Math.min(length, start + TRANSFER_STRIDE);
+            for (int bucket = start; bucket < end; bucket++) {
+                transferBucket(t, next, bucket);
+            }
+            if (t.transferred.addAndGet(end - start) == length) {
+                table.compareAndSet(t, next);
+            }
+        }
+    }
+
+    /**
+     * Splits one old bucket into its two new buckets and forwards it
+     */
+    @SuppressWarnings("unchecked")
+    private void transferBucket(Table<K, V> from, Table<K, V> to, int bucket) {
+        int length = from.length();
+        synchronized (lockFor(bucket)) {
+            Node<K, V> low = null;
+            Node<K, V> high = null;
+            for (Node<K, V> node = from.buckets.get(bucket); node != null; node = node.next) {
+                if ((node.hash & length) == 0) {
+                    low = new Node<>(node.hash, node.key, node.value, low);
+                } else {
+                    high = new Node<>(node.hash, node.key, node.value, high);
+                }
+            }
+            to.buckets.set(bucket, low);
+            to.buckets.set(bucket + length, high);
+            from.buckets.set(bucket, (Node<K, V>) FORWARD);
+        }
+    }
+
+    /**
+     * Returns a weakly consistent iterator for ConcurrentChainedHashDictionary
+     */
+    @Override
+    public Iterator<KVPair<K, V>> iterator() {
+        return new ConcurrentIterator<>(table.get());
+    }
+
+    private static class Node<K, V> {
+        public final int hash;
+        public final Object key;
+        public volatile V value;
+        public final Node<K, V> next;
+
+        public Node(int hash, Object key, V value, Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    // Left in an old bucket once its contents have been moved to the next table
+    private static final Node<Object, Object> FORWARD = new Node<>(MOVED, null, null, null);
+
+    private static class Table<K, V> {
+        public final AtomicReferenceArray<Node<K, V>> buckets;
+        // The table being resized into, or null if no resize has started
+        public volatile Table<K, V> next;
+        // Next bucket index a helper may claim, and number of buckets fully moved
+        public final AtomicInteger transferIndex;
+        public final AtomicInteger transferred;
+
+        public Table(int length) {
+            this.buckets = new AtomicReferenceArray<>(length);
+            this.next = null;
+            this.transferIndex = new AtomicInteger(0);
+            this.transferred = new AtomicInteger(0);
+        }
+
+        public int length() {
+            return buckets.length();
+        }
+    }
+
+    private static class ConcurrentIterator<K, V> implements Iterator<KVPair<K, V>> {
+        private Table<K, V> base;
+        private int baseIndex;
+        // Buckets of newer tables still to visit because a base bucket was forwarded
+        private Deque<Position<K, V>> pending;
+        private Node<K, V> current;
+
+        public ConcurrentIterator(Table<K, V> base) {
+            this.base = base;
+            this.baseIndex = 0;
+            this.pending = new ArrayDeque<>();
+            this.current = advance(null);
+        }
+
+        /**
+         * Returns the node after the given one, moving on to later buckets
+         * (and into newer tables for forwarded buckets) as needed
+         */
+        private Node<K, V> advance(Node<K, V> node) {
+            Node<K, V> result = node == null ? null : node.next;
+            while (result == null) {
+                Table<K, V> t;
+                int bucket;
+                if (!pending.isEmpty()) {
+                    Position<K, V> position = pending.pop();
+                    t = position.table;
+                    bucket = position.bucket;
+                } else if (baseIndex < base.length()) {
+                    t = base;
+                    bucket = baseIndex++;
+                } else {
+                    return null;
+                }
+                Node<K, V> head = t.buckets.get(bucket);
+                if (head != null && head.hash == MOVED) {
+                    pending.push(new Position<>(t.next, bucket + t.length()));
+                    pending.push(new Position<>(t.next, bucket));
+                } else {
+                    result = head;
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Returns true if there is another entry, false otherwise
+         */
+        public boolean hasNext() {
+            return current != null;
+        }
+
+        /**
+         * Returns the next KVPair, throws a NoSuchElementException if there isn't one
+         */
+        public KVPair<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Node<K, V> node = current;
+            current = advance(current);
+            return new KVPair<>(ConcurrentChainedHashDictionary.<K>unmaskNull(node.key), node.value);
+        }
+    }
+
+    private static class Position<K, V> {
+        public final Table<K, V> table;
+        public final int bucket;
+
+        public Position(Table<K, V> table, int bucket) {
+            this.table = table;
+            this.bucket = bucket;
+        }
+    }
+}
@@ -0,0 +1,487 @@
+package datastructures.concrete.dictionaries;
+
+import datastructures.concrete.KVPair;
+import datastructures.interfaces.IDictionary;
+import misc.exceptions.NoSuchKeyException;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+/**
+ * A hash dictionary using bucketized cuckoo hashing, so a lookup never probes
+ * more than two buckets.
+ *
+ * The table is split into buckets of four slots, and each key may only live
+ * in one of two buckets picked by two different hash functions. A lookup
+ * compares the cached hashes of those eight slots, which sit in two runs of
+ * four ints, and only calls equals() on a hash match. When both buckets of a
+ * new key are full, a bounded breadth-first search looks for a short chain
+ * of entries that can each move to their other bucket to free up a slot.
+ * Four-way buckets let the table fill to about 95% before such a search
+ * fails. Keys that still don't fit go into a small stash, which lookups only
+ * check when it is non-empty; the table grows once the stash fills up.
+ * (If many keys share one hash code, the stash grows instead, and lookups
+ * of those keys degrade to a linear scan as with a chained table.)
+ *
+ * See IDictionary for more details on what each method should do.
+ */
+public class CuckooHashDictionary<K, V> implements IDictionary<K, V> {
+    private static final int SLOTS_PER_BUCKET = 4;
+    private static final int INITIAL_BUCKETS = 4;
+    private static final double MAX_LOAD_FACTOR = 0.95;
+    // The most buckets a displacement search looks at before giving up
+    private static final int MAX_SEARCH = 256;
+    private static final int STASH_LIMIT = 4;
+    // Stands in for the null key, since a null slot is an empty slot
+    private static final Object NULL_KEY = new Object();
+
+    // Invariants:
+    //  - keys.length == values.length == hashes.length == number of buckets * SLOTS_PER_BUCKET
+    //  - keys[i] == null if slot i is empty, otherwise hashes[i] is the key's hash
+    //  - every key in the table is in bucket1(hash) or bucket2(hash)
+    //  - the first stashSize slots of the stash arrays hold keys that didn't fit
+    private Object[] keys;
+    private Object[] values;
+    private int[] hashes;
+    private int bucketMask;
+    private Object[] stashKeys;
+    private Object[] stashValues;
+    private int[] stashHashes;
+    private int stashSize;
+    private int size;
+
+    public CuckooHashDictionary() {
+        allocate(INITIAL_BUCKETS);
+        this.size = 0;
+    }
+
+    private void allocate(int numBuckets) {
+        keys = new Object[numBuckets * SLOTS_PER_BUCKET];
+        values = new Object[numBuckets * SLOTS_PER_BUCKET];
+        hashes = new int[numBuckets * SLOTS_PER_BUCKET];
+        bucketMask = numBuckets - 1;
+        stashKeys = new Object[STASH_LIMIT];
+        stashValues = new Object[STASH_LIMIT];
+        stashHashes = new int[STASH_LIMIT];
+        stashSize = 0;
+    }
+
+    private static Object mask(Object key) {
+        return key == null ? NULL_KEY : key;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> K unmask(Object key) {
+        return key == NULL_KEY ? null : (K) key;
+    }
+
+    private static int hash(Object key) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private int bucket1(int hash) {
+        return hash & bucketMask;
+    }
+
+    /**
+     * Picks the second bucket from the high bits, which bucket1 ignores
+     */
+    private int bucket2(int hash) {
+        int bucket = ((hash >>> 16) * 0x85EBCA6B + hash) & bucketMask;
+        return bucket == bucket1(hash) ? (bucket + 1) & bucketMask : bucket;
+    }
+
+    private int otherBucket(int hash, int bucket) {
+        int first = bucket1(hash);
+        return bucket == first ? bucket2(hash) : first;
+    }
+
+    /**
+     * Returns the slot of the key within the given bucket, or -1
+     */
+    private int findInBucket(int bucket, int hash, Object key) {
+        int start = bucket * SLOTS_PER_BUCKET;
+        for (int slot = start; slot < start + SLOTS_PER_BUCKET; slot++) {
+            if (hashes[slot] == hash && keys[slot] != null && keys[slot].equals(key)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the key in the table, or -(index in the stash) - 1
+     * if it is stashed, or Integer.MIN_VALUE if it is absent
+     */
+    private int find(Object key) {
+        int hash = hash(key);
+        int slot = findInBucket(bucket1(hash), hash, key);
+        if (slot >= 0) {
+            return slot;
+        }
+        slot = findInBucket(bucket2(hash), hash, key);
+        if (slot >= 0) {
+            return slot;
+        }
+        for (int i = 0; i < stashSize; i++) {
+            if (stashHashes[i] == hash && stashKeys[i].equals(key)) {
+                return -i - 1;
+            }
+        }
+        return Integer.MIN_VALUE;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int index) {
+        return (V) (index >= 0 ? values[index] : stashValues[-index - 1]);
+    }
+
+    /**
+     * Returns the value for the given key. Throws a NoSuchKeyException if the
+     * key doesn't exist in the dictionary
+     */
+    @Override
+    public V get(K key) {
+        int index = find(mask(key));
+        if (index == Integer.MIN_VALUE) {
+            throw new NoSuchKeyException();
+        }
+        return valueAt(index);
+    }
+
+    @Override
+    public V getOrDefault(K key, V defaultValue) {
+        int index = find(mask(key));
+        return index == Integer.MIN_VALUE ? defaultValue : valueAt(index);
+    }
+
+    /**
+     * Puts the given key and value into the dictionary, replacing the old
+     * value if the key already exists
+     */
+    @Override
+    public void put(K key, V value) {
+        Object masked = mask(key);
+        int index = find(masked);
+        if (index >= 0) {
+            values[index] = value;
+        } else if (index != Integer.MIN_VALUE) {
+            stashValues[-index - 1] = value;
+        } else {
+            if (size + 1 > keys.length * MAX_LOAD_FACTOR) {
+                resize();
+            }
+            insertAbsent(masked, hash(masked), value);
+            size++;
+        }
+    }
+
+    /**
+     * Inserts a key that is known to be absent, stashing it if it doesn't fit
+     * and growing the table once the stash is full
+     */
+    private void insertAbsent(Object key, int hash, Object value) {
+        while (!tryInsert(key, hash, value)) {
+            if (stashSize == stashKeys.length && size < keys.length / 2) {
+                // A mostly empty table that still overflows means many keys share
+                // the same hash, which no amount of growing would separate
+                growStash();
+            }
+            if (stashSize < stashKeys.length) {
+                stashKeys[stashSize] = key;
+                stashValues[stashSize] = value;
+                stashHashes[stashSize] = hash;
+                stashSize++;
+                return;
+            }
+            resize();
+        }
+    }
+
+    private void growStash() {
+        Object[] newKeys = new Object[stashKeys.length * 2];
+        Object[] newValues = new Object[stashKeys.length * 2];
+        int[] newHashes = new int[stashKeys.length * 2];
+        System.arraycopy(stashKeys, 0, newKeys, 0, stashSize);
+        System.arraycopy(stashValues, 0, newValues, 0, stashSize);
+        System.arraycopy(stashHashes, 0, newHashes, 0, stashSize);
+        stashKeys = newKeys;
+        stashValues = newValues;
+        stashHashes = newHashes;
+    }
+
+    /**
+     * Puts the key in the table, displacing other keys if needed. Returns
+     * false if no free slot could be found within the search limit.
+     */
+    private boolean tryInsert(Object key, int hash, Object value) {
+        int first = bucket1(hash);
+        int second = bucket2(hash);
+        int slot = emptySlot(first);
+        if (slot < 0) {
+            slot = emptySlot(second);
+        }
+        if (slot < 0) {
+            slot = displace(first, second);
+        }
+        if (slot < 0) {
+            return false;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        hashes[slot] = hash;
+        return true;
+    }
+
+    /**
+     * Returns an empty slot in the given bucket, or -1 if it is full
+     */
+    private int emptySlot(int bucket) {
+        int start = bucket * SLOTS_PER_BUCKET;
+        for (int slot = start; slot < start + SLOTS_PER_BUCKET; slot++) {
+            if (keys[slot] == null) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Searches breadth-first from the two full buckets for an entry that can
+     * move to its other bucket, possibly after moving entries out of that one
+     * in turn. If it finds one, makes every move on the path and returns the
+     * slot it freed up in one of the two starting buckets; otherwise returns -1.
+     */
+    private int displace(int first, int second) {
+        // Node i of the search tree is a full bucket, reached by moving the
+        // entry in slot (viaSlot[i]) of its parent's bucket into it
+        int[] bucket = new int[MAX_SEARCH];
+        int[] parent = new int[MAX_SEARCH];
+        int[] viaSlot = new int[MAX_SEARCH];
+        bucket[0] = first;
+        parent[0] = -1;
+        bucket[1] = second;
+        parent[1] = -1;
+        int count = 2;
+
+        for (int node = 0; node < count; node++) {
+            int start = bucket[node] * SLOTS_PER_BUCKET;
+            for (int slot = start; slot < start + SLOTS_PER_BUCKET; slot++) {
+                int target = otherBucket(hashes[slot], bucket[node]);
+                int free = emptySlot(target);
+                if (free >= 0) {
+                    // Walk back up the path, moving each entry into the slot freed before it
+                    moveSlot(slot, free);
+                    int freed = slot;
+                    for (int current = node; parent[current] >= 0; current = parent[current]) {
+                        moveSlot(viaSlot[current], freed);
+                        freed = viaSlot[current];
+                    }
+                    return freed;
+                }
+                if (count < MAX_SEARCH && !onPath(target, node, bucket, parent)) {
+                    bucket[count] = target;
+                    parent[count] = node;
+                    viaSlot[count] = slot;
+                    count++;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns true if the bucket appears on the path from the given node back to the root.
+     * Paths never visit a bucket twice, so the slots they move entries through are distinct.
+     */
+    private static boolean onPath(int target, int node, int[] bucket, int[] parent) {
+        for (int current = node; current >= 0; current = parent[current]) {
+            if (bucket[current] == target) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void moveSlot(int from, int to) {
+        keys[to] = keys[from];
+        values[to] = values[from];
+        hashes[to] = hashes[from];
+        keys[from] = null;
+        values[from] = null;
+    }
+
+    /**
+     * Doubles the number of buckets and reinserts every entry, including the stashed ones
+     */
+    private void resize() {
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        int[] oldHashes = hashes;
+        Object[] oldStashKeys = stashKeys;
+        Object[] oldStashValues = stashValues;
+        int[] oldStashHashes = stashHashes;
+        int oldStashSize = stashSize;
+
+        allocate((bucketMask + 1) * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                insertAbsent(oldKeys[i], oldHashes[i], oldValues[i]);
+            }
+        }
+        for (int i = 0; i < oldStashSize; i++) {
+            insertAbsent(oldStashKeys[i], oldStashHashes[i], oldStashValues[i]);
+        }
+    }
+
+    /**
+     * Removes the given key and returns its value. Throws a NoSuchKeyException
+     * if the key doesn't exist in the dictionary
+     */
+    @Override
+    public V remove(K key) {
+        int index = find(mask(key));
+        if (index == Integer.MIN_VALUE) {
+            throw new NoSuchKeyException();
+        }
+        V value = valueAt(index);
+        if (index >= 0) {
+            keys[index] = null;
+            values[index] = null;
+            unstashOne();
+        } else {
+            int stashIndex = -index - 1;
+            stashSize--;
+            stashKeys[stashIndex] = stashKeys[stashSize];
+            stashValues[stashIndex] = stashValues[stashSize];
+            stashHashes[stashIndex] = stashHashes[stashSize];
+            stashKeys[stashSize] = null;
+            stashValues[stashSize] = null;
+        }
+        size--;
+        return value;
+    }
+
+    /**
+     * Moves a stashed entry into the table if the removal freed up one of its buckets
+     */
+    private void unstashOne() {
+        for (int i = 0; i < stashSize; i++) {
+            int hash = stashHashes[i];
+            int slot = emptySlot(bucket1(hash));
+            if (slot < 0) {
+                slot = emptySlot(bucket2(hash));
+            }
+            if (slot >= 0) {
+                keys[slot] = stashKeys[i];
+                values[slot] = stashValues[i];
+                hashes[slot] = hash;
+                stashSize--;
+                stashKeys[i] = stashKeys[stashSize];
+                stashValues[i] = stashValues[stashSize];
+                stashHashes[i] = stashHashes[stashSize];
+                stashKeys[stashSize] = null;
+                stashValues[stashSize] = null;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns true if the dictionary contains the key, false otherwise
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return find(mask(key)) != Integer.MIN_VALUE;
+    }
+
+    /**
+     * Returns the number of key-value pairs in the dictionary
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the fraction of table slots in use.
+     */
+    public double loadFactor() {
+        return (double) (size - stashSize) / keys.length;
+    }
+
+    /**
+     * Calls the action on each pair in a plain loop over the slots and the stash
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                action.accept(unmask(keys[i]), (V) values[i]);
+            }
+        }
+        for (int i = 0; i < stashSize; i++) {
+            action.accept(unmask(stashKeys[i]), (V) stashValues[i]);
+        }
+    }
+
+    /**
+     * Returns the iterator for CuckooHashDictionary
+     */
+    @Override
+    public Iterator<KVPair<K, V>> iterator() {
+        return new CuckooIterator<>(keys, values, stashKeys, stashValues, stashSize);
+    }
+
+    private static class CuckooIterator<K, V> implements Iterator<KVPair<K, V>> {
+        private final Object[] keys;
+        private final Object[] values;
+        private final Object[] stashKeys;
+        private final Object[] stashValues;
+        private final int stashSize;
+        // Indexes past the end of the table refer to the stash
+        private int index;
+
+        public CuckooIterator(Object[] keys, Object[] values, Object[] stashKeys, Object[] stashValues,
+                              int stashSize) {
+            this.keys = keys;
+            this.values = values;
+            this.stashKeys = stashKeys;
+            this.stashValues = stashValues;
+            this.stashSize = stashSize;
+            this.index = 0;
+        }
+
+        /**
+         * Returns true if there is another pair, false otherwise
+         */
+        public boolean hasNext() {
+            while (index < keys.length && keys[index] == null) {
+                index++;
+            }
+            return index < keys.length + stashSize;
+        }
+
+        /**
+         * Returns the next KVPair, throws a NoSuchElementException if there isn't one
+         */
+        @SuppressWarnings("unchecked")
+        public KVPair<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            KVPair<K, V> pair;
+            if (index < keys.length) {
+                pair = new KVPair<>(unmask(keys[index]), (V) values[index]);
+            } else {
+                int stashIndex = index - keys.length;
+                pair = new KVPair<>(unmask(stashKeys[stashIndex]), (V) stashValues[stashIndex]);
+            }
+            index++;
+            return pair;
+        }
+    }
+}
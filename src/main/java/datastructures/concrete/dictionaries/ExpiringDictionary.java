@@ -0,0 +1,366 @@
+package datastructures.concrete.dictionaries;
+
+import datastructures.concrete.KVPair;
+import datastructures.interfaces.IDictionary;
+import misc.exceptions.NoSuchKeyException;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A dictionary whose entries disappear once their time to live has passed.
+ * Every entry gets the default time to live unless put() is given its own.
+ *
+ * Deadlines are kept in a hierarchical timer wheel: five wheels whose buckets
+ * are about a second, a minute, an hour, a day and a week wide. Each entry sits
+ * in the bucket for its deadline on the finest wheel that reaches that far.
+ * Every operation first turns the wheels up to the current time, expiring the
+ * entries in each bucket passed and moving entries from coarse buckets down to
+ * finer ones, so an entry is only touched a handful of times over its whole
+ * life and expired entries are reclaimed in O(1) amortized time without any
+ * sweep over the dictionary.
+ *
+ * An expired entry is never returned, but size() may still count entries that
+ * expired within the last second until the wheel reaches their bucket.
+ *
+ * Time comes from a Ticker, so tests can supply a fake one.
+ *
+ * See IDictionary for more details on what each method should do.
+ */
+public class ExpiringDictionary<K, V> implements IDictionary<K, V> {
+    /**
+     * A source of time, in nanoseconds, measured from some fixed but arbitrary
+     * origin. It must never go backwards.
+     */
+    public interface Ticker {
+        long read();
+
+        Ticker SYSTEM = System::nanoTime;
+    }
+
+    // The number of buckets in each wheel, and the width of a bucket in each
+    // wheel in nanoseconds (a power of two near one second, minute, hour, ...)
+    private static final int[] BUCKETS = {64, 64, 32, 4, 1};
+    private static final long[] SPANS = {
+        1L << 30, // 1.07 seconds
+        1L << 36, // 1.14 minutes
+        1L << 42, // 1.22 hours
+        1L << 47, // 1.63 days
+        1L << 49, // 6.52 days
+        1L << 49
+    };
+    private static final int[] SHIFTS = new int[SPANS.length];
+    static {
+        for (int i = 0; i < SPANS.length; i++) {
+            SHIFTS[i] = Long.numberOfTrailingZeros(SPANS[i]);
+        }
+    }
+
+    private final long defaultTtlNanos;
+    private final Ticker ticker;
+    private final IDictionary<K, Node<K, V>> index;
+    // wheels[level][bucket] is the sentinel of a circular list of nodes
+    private final Node<K, V>[][] wheels;
+    // The time the wheels were last turned to
+    private long nanos;
+    private long expirationCount;
+
+    /**
+     * Creates an empty dictionary whose entries expire after the given duration by default.
+     */
+    public ExpiringDictionary(long defaultTtl, TimeUnit unit) {
+        this(defaultTtl, unit, Ticker.SYSTEM);
+    }
+
+    /**
+     * Creates an empty dictionary whose entries expire after the given duration
+     * by default, as measured by the given ticker.
+     */
+    @SuppressWarnings("unchecked")
+    public ExpiringDictionary(long defaultTtl, TimeUnit unit, Ticker ticker) {
+        this.defaultTtlNanos = toNanos(defaultTtl, unit);
+        this.ticker = ticker;
+        this.index = new ChainedHashDictionary<>();
+        this.wheels = (Node<K, V>[][]) new Node[BUCKETS.length][];
+        for (int level = 0; level < BUCKETS.length; level++) {
+            wheels[level] = (Node<K, V>[]) new Node[BUCKETS[level]];
+            for (int bucket = 0; bucket < BUCKETS[level]; bucket++) {
+                wheels[level][bucket] = new Node<>();
+            }
+        }
+        this.nanos = ticker.read();
+        this.expirationCount = 0;
+    }
+
+    private static long toNanos(long duration, TimeUnit unit) {
+        if (duration <= 0) {
+            throw new IllegalArgumentException("time to live must be positive");
+        }
+        return unit.toNanos(duration);
+    }
+
+    /**
+     * Returns the number of entries that have been removed because they expired.
+     */
+    public long expirationCount() {
+        return expirationCount;
+    }
+
+    /**
+     * Removes every entry that has expired by now and whose bucket the wheel has reached.
+     * This already happens as part of every other operation, so calling it is
+     * only needed to free memory in a dictionary that is otherwise idle.
+     */
+    public void cleanUp() {
+        advance();
+    }
+
+    /**
+     * Turns the wheels up to the current time and returns that time.
+     */
+    private long advance() {
+        long previous = nanos;
+        long current = ticker.read();
+        nanos = current;
+        for (int level = 0; level < BUCKETS.length; level++) {
+            long previousTicks = previous >>> SHIFTS[level];
+            long currentTicks = current >>> SHIFTS[level];
+            if (currentTicks - previousTicks <= 0) {
+                // A coarser wheel can't have turned if this one didn't
+                break;
+            }
+            expireBuckets(level, previousTicks, currentTicks - previousTicks);
+        }
+        return current;
+    }
+
+    /**
+     * Empties the buckets of the given wheel that were passed while it turned
+     * by the given number of ticks. Expired entries are removed; the rest are
+     * scheduled again, which puts them in a bucket on a finer wheel.
+     */
+    private void expireBuckets(int level, long previousTicks, long delta) {
+        Node<K, V>[] wheel = wheels[level];
+        int mask = wheel.length - 1;
+        int steps = (int) Math.min(delta + 1, wheel.length);
+        int start = (int) (previousTicks & mask);
+        for (int i = start; i < start + steps; i++) {
+            Node<K, V> sentinel = wheel[i & mask];
+            Node<K, V> node = sentinel.next;
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            while (node != sentinel) {
+                Node<K, V> next = node.next;
+                node.prev = null;
+                node.next = null;
+                if (node.expiresAt - nanos <= 0) {
+                    index.remove(node.key);
+                    expirationCount++;
+                } else {
+                    schedule(node);
+                }
+                node = next;
+            }
+        }
+    }
+
+    /**
+     * Adds the node to the bucket for its deadline on the finest wheel that reaches it
+     */
+    private void schedule(Node<K, V> node) {
+        long duration = node.expiresAt - nanos;
+        for (int level = 0; level < BUCKETS.length - 1; level++) {
+            if (duration < SPANS[level + 1]) {
+                long ticks = node.expiresAt >>> SHIFTS[level];
+                link(wheels[level][(int) (ticks & (BUCKETS[level] - 1))], node);
+                return;
+            }
+        }
+        link(wheels[BUCKETS.length - 1][0], node);
+    }
+
+    private static <K, V> void link(Node<K, V> sentinel, Node<K, V> node) {
+        node.prev = sentinel.prev;
+        node.next = sentinel;
+        sentinel.prev.next = node;
+        sentinel.prev = node;
+    }
+
+    private static <K, V> void unlink(Node<K, V> node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+    }
+
+    /**
+     * Returns the node for the given key, or null if it is absent or has expired.
+     */
+    private Node<K, V> findLive(K key) {
+        long now = advance();
+        Node<K, V> node = index.getOrDefault(key, null);
+        if (node == null) {
+            return null;
+        }
+        if (node.expiresAt - now <= 0) {
+            // Expired, but the wheel hasn't reached its bucket yet
+            index.remove(key);
+            unlink(node);
+            expirationCount++;
+            return null;
+        }
+        return node;
+    }
+
+    /**
+     * Returns the value for the given key. Throws a NoSuchKeyException if the
+     * key doesn't exist in the dictionary or has expired
+     */
+    @Override
+    public V get(K key) {
+        Node<K, V> node = findLive(key);
+        if (node == null) {
+            throw new NoSuchKeyException();
+        }
+        return node.value;
+    }
+
+    @Override
+    public V getOrDefault(K key, V defaultValue) {
+        Node<K, V> node = findLive(key);
+        return node == null ? defaultValue : node.value;
+    }
+
+    /**
+     * Puts the given key and value into the dictionary with the default time
+     * to live, replacing the old value and deadline if the key already exists
+     */
+    @Override
+    public void put(K key, V value) {
+        putNanos(key, value, defaultTtlNanos);
+    }
+
+    /**
+     * Puts the given key and value into the dictionary with its own time to
+     * live, replacing the old value and deadline if the key already exists
+     */
+    public void put(K key, V value, long ttl, TimeUnit unit) {
+        putNanos(key, value, toNanos(ttl, unit));
+    }
+
+    private void putNanos(K key, V value, long ttlNanos) {
+        long now = advance();
+        Node<K, V> node = index.getOrDefault(key, null);
+        if (node == null) {
+            node = new Node<>(key);
+            index.put(key, node);
+        } else {
+            unlink(node);
+        }
+        node.value = value;
+        node.expiresAt = now + ttlNanos;
+        schedule(node);
+    }
+
+    /**
+     * Removes the given key and returns its value. Throws a NoSuchKeyException
+     * if the key doesn't exist in the dictionary or has expired
+     */
+    @Override
+    public V remove(K key) {
+        Node<K, V> node = findLive(key);
+        if (node == null) {
+            throw new NoSuchKeyException();
+        }
+        index.remove(key);
+        unlink(node);
+        return node.value;
+    }
+
+    /**
+     * Returns true if the dictionary contains the key and it hasn't expired, false otherwise
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return findLive(key) != null;
+    }
+
+    /**
+     * Returns the number of key-value pairs in the dictionary, which may
+     * include some that expired within the last second
+     */
+    @Override
+    public int size() {
+        advance();
+        return index.size();
+    }
+
+    /**
+     * Returns an iterator over the pairs that haven't expired as of when it was created
+     */
+    @Override
+    public Iterator<KVPair<K, V>> iterator() {
+        // Expire first, so the index isn't changed under the iterator
+        long now = advance();
+        return new ExpiringIterator<>(index.iterator(), now);
+    }
+
+    private static class Node<K, V> {
+        public final K key;
+        public V value;
+        public long expiresAt;
+        public Node<K, V> prev;
+        public Node<K, V> next;
+
+        /**
+         * Creates the sentinel of an empty bucket
+         */
+        public Node() {
+            this.key = null;
+            this.prev = this;
+            this.next = this;
+        }
+
+        public Node(K key) {
+            this.key = key;
+        }
+    }
+
+    private static class ExpiringIterator<K, V> implements Iterator<KVPair<K, V>> {
+        private final Iterator<KVPair<K, Node<K, V>>> iter;
+        private final long now;
+        private Node<K, V> nextNode;
+
+        public ExpiringIterator(Iterator<KVPair<K, Node<K, V>>> iter, long now) {
+            this.iter = iter;
+            this.now = now;
+            this.nextNode = null;
+        }
+
+        /**
+         * Returns true if there is another live pair, false otherwise
+         */
+        public boolean hasNext() {
+            while (nextNode == null && iter.hasNext()) {
+                Node<K, V> node = iter.next().getValue();
+                if (node.expiresAt - now > 0) {
+                    nextNode = node;
+                }
+            }
+            return nextNode != null;
+        }
+
+        /**
+         * Returns the next KVPair, throws a NoSuchElementException if there isn't one
+         */
+        public KVPair<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            KVPair<K, V> pair = new KVPair<>(nextNode.key, nextNode.value);
+            nextNode = null;
+            return pair;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package datastructures.concrete.dictionaries;
+
+/**
+ * A Count-Min sketch that estimates how often each key has been seen, using
+ * 4-bit counters packed sixteen to a long.
+ *
+ * Each key maps to one counter in each of four rows; its estimate is the
+ * smallest of the four, which can only be an overestimate. Once the number
+ * of increments reaches the sample size, every counter is halved, so the
+ * sketch forgets old popularity and follows changes in the workload.
+ */
+class FrequencySketch<K> {
+    private static final long[] SEEDS = {
+        0x97CB3127L, 0xB492B66FBE98F273L, 0x9AE16A3B2F90404FL, 0xCBF29CE484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private long[] table;
+    private int sampleSize;
+    private int additions;
+
+    /**
+     * Creates a sketch sized for a cache holding the given number of entries.
+     */
+    public FrequencySketch(int expectedSize) {
+        ensureCapacity(expectedSize);
+    }
+
+    /**
+     * Resizes the sketch for a cache holding the given number of entries, if
+     * it isn't already that big. Resizing forgets all counts.
+     */
+    public void ensureCapacity(int expectedSize) {
+        if (table != null && table.length >= Math.min(expectedSize, MAXIMUM_CAPACITY)) {
+            return;
+        }
+        int capacity = 16;
+        while (capacity < expectedSize && capacity < MAXIMUM_CAPACITY) {
+            capacity *= 2;
+        }
+        table = new long[capacity];
+        sampleSize = capacity * 10;
+        additions = 0;
+    }
+
+    /**
+     * Returns the estimated number of times the key has been seen, capped at 15.
+     */
+    public int frequency(K key) {
+        int hash = spread(key);
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < SEEDS.length; row++) {
+            long h = rowHash(hash, row);
+            long word = table[slot(h)];
+            frequency = Math.min(frequency, (int) ((word >>> offset(h)) & 0xF));
+        }
+        return frequency;
+    }
+
+    /**
+     * Records one more sighting of the key.
+     */
+    public void increment(K key) {
+        int hash = spread(key);
+        boolean added = false;
+        for (int row = 0; row < SEEDS.length; row++) {
+            long h = rowHash(hash, row);
+            int slot = slot(h);
+            int offset = offset(h);
+            if (((table[slot] >>> offset) & 0xF) < MAX_COUNT) {
+                table[slot] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Halves every counter
+     */
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    private static int spread(Object key) {
+        int hash = key == null ? 0 : key.hashCode();
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static long rowHash(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        return h ^ (h >>> 32);
+    }
+
+    private int slot(long rowHash) {
+        return (int) (rowHash >>> 8) & (table.length - 1);
+    }
+
+    private static int offset(long rowHash) {
+        return (int) (rowHash & 0xF) << 2;
+    }
+}
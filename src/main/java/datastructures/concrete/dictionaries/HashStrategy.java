@@ -0,0 +1,96 @@
+package datastructures.concrete.dictionaries;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Decides how a hash dictionary hashes and compares its keys, so keys can be
+ * used whose own hashCode() and equals() are not what we want, such as
+ * arrays, without wrapping each one in another object.
+ *
+ * If null keys are used, both methods must accept null.
+ */
+public interface HashStrategy<K> {
+    /**
+     * Returns a hash code for the key. Keys that are equal must have the same
+     * hash code. The dictionary mixes the result itself, so it doesn't need to
+     * be well spread out.
+     */
+    int hash(K key);
+
+    /**
+     * Returns true if the two keys should be treated as the same key
+     */
+    boolean equals(K a, K b);
+
+    /**
+     * Returns true if equals() agrees with the keys' own equals(), so that
+     * their compareTo() can be used to order keys whose hashes tie
+     */
+    default boolean hasNaturalEquality() {
+        return false;
+    }
+
+    /**
+     * Returns an equivalent strategy with a new random seed, or null if this
+     * strategy doesn't use a seed. A dictionary calls this when a chain grows
+     * suspiciously long, then rehashes every key with the returned strategy.
+     */
+    default HashStrategy<K> reseed() {
+        return null;
+    }
+
+    /**
+     * Uses the keys' own hashCode() and equals()
+     */
+    HashStrategy<Object> NATURAL = new HashStrategy<Object>() {
+        public int hash(Object key) {
+            return key == null ? 0 : key.hashCode();
+        }
+
+        public boolean equals(Object a, Object b) {
+            return Objects.equals(a, b);
+        }
+
+        @Override
+        public boolean hasNaturalEquality() {
+            return true;
+        }
+    };
+
+    /**
+     * Compares byte arrays by their contents
+     */
+    HashStrategy<byte[]> BYTE_ARRAY = new HashStrategy<byte[]>() {
+        public int hash(byte[] key) {
+            return Arrays.hashCode(key);
+        }
+
+        public boolean equals(byte[] a, byte[] b) {
+            return Arrays.equals(a, b);
+        }
+    };
+
+    /**
+     * Returns NATURAL, typed for the caller's keys
+     */
+    @SuppressWarnings("unchecked")
+    static <K> HashStrategy<K> natural() {
+        return (HashStrategy<K>) NATURAL;
+    }
+
+    /**
+     * Scrambles a hash code so every input bit affects every output bit (the
+     * MurmurHash3 finalizer). Hash codes that differ only in their high bits,
+     * or that count up like Integer keys do, then still land in different
+     * buckets when the table takes just the low bits.
+     */
+    static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
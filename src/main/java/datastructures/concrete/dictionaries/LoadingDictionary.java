@@ -0,0 +1,247 @@
+package datastructures.concrete.dictionaries;
+
+import datastructures.concrete.DoubleLinkedList;
+import datastructures.concrete.KVPair;
+import datastructures.concrete.dictionaries.ExpiringDictionary.Ticker;
+import datastructures.interfaces.IDictionary;
+import datastructures.interfaces.IList;
+import misc.exceptions.NoSuchKeyException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Puts a loader function in front of a cache dictionary, so that a miss loads
+ * the value in the background instead of every caller computing it itself.
+ *
+ * getAsync() returns a CompletableFuture. Concurrent misses on the same key
+ * share a single in-flight load, so a hot key that misses costs one call to
+ * the loader however many requests arrive while it runs. Loaded values are
+ * put in the cache, which can be any dictionary (a LruCacheDictionary to bound
+ * its size, an ExpiringDictionary to make values expire, and so on).
+ *
+ * If a refresh interval is given, a hit on a value loaded longer ago than that
+ * still returns the cached value at once but also starts a reload in the
+ * background. With a refresh interval shorter than the cache's time to live,
+ * hot keys are reloaded before they expire and never miss. The keys loaded
+ * within the interval are tracked separately from the cache; that record is
+ * purged of keys the cache has dropped whenever it grows past twice the
+ * cache's size, so it stays in proportion to the cache.
+ *
+ * Loads run on the given executor (the common ForkJoinPool by default); on
+ * Java 21 and up, Executors.newVirtualThreadPerTaskExecutor() is a good fit for
+ * loaders that block on I/O. A load that fails or returns null caches nothing.
+ *
+ * The cache dictionary must not be used directly while it is wrapped. All
+ * access to it is synchronized, so it doesn't have to be thread-safe itself.
+ */
+public class LoadingDictionary<K, V> {
+    // Small caches don't purge the refresh record on nearly every store
+    private static final int MIN_FRESH_PURGE = 64;
+
+    private final IDictionary<K, V> cache;
+    private final Function<? super K, ? extends V> loader;
+    private final Executor executor;
+    private final IDictionary<K, CompletableFuture<V>> inFlight;
+    // Holds the keys loaded within the refresh interval, or null if there is no refreshing
+    private final ExpiringDictionary<K, Boolean> fresh;
+    private final Object lock;
+    private long loadCount;
+
+    /**
+     * Creates a loading dictionary that loads on the common ForkJoinPool and never refreshes.
+     */
+    public LoadingDictionary(IDictionary<K, V> cache, Function<? super K, ? extends V> loader) {
+        this(cache, loader, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a loading dictionary that loads on the given executor and never refreshes.
+     */
+    public LoadingDictionary(IDictionary<K, V> cache, Function<? super K, ? extends V> loader, Executor executor) {
+        this(cache, loader, executor, null);
+    }
+
+    /**
+     * Creates a loading dictionary that loads on the given executor and reloads
+     * values in the background once they are older than the given interval,
+     * as measured by the given ticker.
+     */
+    public LoadingDictionary(IDictionary<K, V> cache, Function<? super K, ? extends V> loader, Executor executor,
+                             long refreshAfter, TimeUnit unit, Ticker ticker) {
+        this(cache, loader, executor, new ExpiringDictionary<>(refreshAfter, unit, ticker));
+    }
+
+    private LoadingDictionary(IDictionary<K, V> cache, Function<? super K, ? extends V> loader, Executor executor,
+                              ExpiringDictionary<K, Boolean> fresh) {
+        this.cache = cache;
+        this.loader = loader;
+        this.executor = executor;
+        this.inFlight = new ChainedHashDictionary<>();
+        this.fresh = fresh;
+        this.lock = new Object();
+        this.loadCount = 0;
+    }
+
+    /**
+     * Returns a future for the value of the given key. If the key is cached,
+     * the future is already complete; otherwise it completes once the key's
+     * load, which may have been started by an earlier call, finishes.
+     */
+    public CompletableFuture<V> getAsync(K key) {
+        synchronized (lock) {
+            CompletableFuture<V> pending = inFlight.getOrDefault(key, null);
+            V value = cache.getOrDefault(key, null);
+            if (value != null) {
+                if (pending == null && fresh != null && !fresh.containsKey(key)) {
+                    startLoad(key);
+                }
+                return CompletableFuture.completedFuture(value);
+            }
+            return pending != null ? pending : startLoad(key);
+        }
+    }
+
+    /**
+     * Returns the value of the given key, waiting for it to load if needed.
+     *
+     * @throws java.util.concurrent.CompletionException if the loader failed
+     */
+    public V get(K key) {
+        return getAsync(key).join();
+    }
+
+    /**
+     * Puts the given value in the cache. A load of the key that is already
+     * running still completes its callers' futures, but its value is dropped.
+     */
+    public void put(K key, V value) {
+        synchronized (lock) {
+            if (inFlight.containsKey(key)) {
+                inFlight.remove(key);
+            }
+            store(key, value);
+        }
+    }
+
+    /**
+     * Removes the given key from the cache if it is there. As with put(), the
+     * value of a load that is already running is dropped.
+     */
+    public void invalidate(K key) {
+        synchronized (lock) {
+            if (inFlight.containsKey(key)) {
+                inFlight.remove(key);
+            }
+            removeIfPresent(cache, key);
+            if (fresh != null) {
+                removeIfPresent(fresh, key);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of times the loader has been called, including refreshes.
+     */
+    public long loadCount() {
+        synchronized (lock) {
+            return loadCount;
+        }
+    }
+
+    /**
+     * Starts loading the given key on the executor. Must be called while holding the lock.
+     */
+    private CompletableFuture<V> startLoad(K key) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        inFlight.put(key, future);
+        loadCount++;
+        try {
+            executor.execute(() -> load(key, future));
+        } catch (RejectedExecutionException ex) {
+            inFlight.remove(key);
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+    /**
+     * Runs the loader and completes the future with its result. The value is
+     * only cached if the load wasn't superseded by a put() or invalidate()
+     * while it ran.
+     */
+    private void load(K key, CompletableFuture<V> future) {
+        V value = null;
+        Throwable failure = null;
+        try {
+            value = loader.apply(key);
+        } catch (Throwable ex) {
+            failure = ex;
+        }
+        try {
+            synchronized (lock) {
+                if (inFlight.getOrDefault(key, null) == future) {
+                    inFlight.remove(key);
+                    if (failure == null && value != null) {
+                        store(key, value);
+                    }
+                }
+            }
+        } catch (Throwable ex) {
+            // The cache refused the value (a Weigher rejecting it, say): the
+            // callers waiting on the future must still hear about it
+            failure = ex;
+        }
+        if (failure != null) {
+            future.completeExceptionally(failure);
+        } else {
+            future.complete(value);
+        }
+    }
+
+    private void store(K key, V value) {
+        cache.put(key, value);
+        if (fresh != null) {
+            fresh.put(key, Boolean.TRUE);
+            if (fresh.size() > 2 * cache.size() + MIN_FRESH_PURGE) {
+                purgeFresh();
+            }
+        }
+    }
+
+    /**
+     * Forgets the load times of keys the cache no longer holds (for example
+     * because a size-bounded cache evicted them). After a purge the record
+     * is no bigger than the cache, so purges cost O(1) per store amortized.
+     */
+    private void purgeFresh() {
+        IList<K> gone = new DoubleLinkedList<>();
+        for (KVPair<K, Boolean> pair : fresh) {
+            if (!cache.containsKey(pair.getKey())) {
+                gone.add(pair.getKey());
+            }
+        }
+        for (K key : gone) {
+            removeIfPresent(fresh, key);
+        }
+    }
+
+    /**
+     * Removes the key from the dictionary if it is there. An expiring
+     * dictionary can drop the key between the check and the removal, so a
+     * NoSuchKeyException from the removal just means it is already gone.
+     */
+    private static <K> void removeIfPresent(IDictionary<K, ?> dict, K key) {
+        if (dict.containsKey(key)) {
+            try {
+                dict.remove(key);
+            } catch (NoSuchKeyException ex) {
+                // Expired in the meantime: nothing left to remove
+            }
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package datastructures.concrete.dictionaries;
+
+import misc.exceptions.NoSuchKeyException;
+
+/**
+ * A hash dictionary from long keys to long values that never boxes.
+ *
+ * Keys and values are stored in two parallel long arrays using linear probing,
+ * so there is no Long, Pair or KVPair object per entry. A key of 0 marks
+ * an empty slot, so an actual 0 key is kept in its own field.
+ *
+ * This class mirrors the methods of IDictionary but can't implement it, since
+ * that would force every key and value to be boxed. Use cursor() to iterate.
+ */
+public class LongLongDictionary {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final double LOAD_FACTOR = 0.75;
+
+    // Invariants:
+    //  - keys.length == values.length, and is a power of two
+    //  - keys[i] == 0 if slot i is empty
+    //  - size counts the non-empty slots; the 0 key is tracked by hasZeroKey
+    private long[] keys;
+    private long[] values;
+    private int size;
+    private boolean hasZeroKey;
+    private long zeroValue;
+
+    public LongLongDictionary() {
+        this(0);
+    }
+
+    /**
+     * Creates an empty dictionary that can hold the given number of entries without growing.
+     */
+    public LongLongDictionary(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must be non-negative");
+        }
+        int capacity = INITIAL_CAPACITY;
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity *= 2;
+        }
+        keys = new long[capacity];
+        values = new long[capacity];
+        size = 0;
+        hasZeroKey = false;
+    }
+
+    /**
+     * Scrambles the key so that sequential keys don't land in a single run of slots
+     */
+    private static int mix(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * Returns the slot holding the given non-zero key. If the key is absent,
+     * returns -(slot it would be added at) - 1 instead.
+     */
+    private int findSlot(long key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -slot - 1;
+    }
+
+    /**
+     * Returns the value for the given key.
+     *
+     * @throws NoSuchKeyException if the dictionary does not contain the given key.
+     */
+    public long get(long key) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                throw new NoSuchKeyException();
+            }
+            return zeroValue;
+        }
+        int slot = findSlot(key);
+        if (slot < 0) {
+            throw new NoSuchKeyException();
+        }
+        return values[slot];
+    }
+
+    /**
+     * Returns the value for the given key, or the default value if the key is absent.
+     */
+    public long getOrDefault(long key, long defaultValue) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int slot = findSlot(key);
+        return slot < 0 ? defaultValue : values[slot];
+    }
+
+    /**
+     * Adds the key-value pair, replacing the old value if the key already exists.
+     */
+    public void put(long key, long value) {
+        if (key == 0) {
+            hasZeroKey = true;
+            zeroValue = value;
+            return;
+        }
+        int slot = findSlot(key);
+        if (slot >= 0) {
+            values[slot] = value;
+        } else {
+            insertAt(-slot - 1, key, value);
+        }
+    }
+
+    /**
+     * Adds the increment to the key's value, treating an absent key as 0, and
+     * returns the new value. Handy for counting without a get and a put.
+     */
+    public long addTo(long key, long increment) {
+        if (key == 0) {
+            zeroValue = hasZeroKey ? zeroValue + increment : increment;
+            hasZeroKey = true;
+            return zeroValue;
+        }
+        int slot = findSlot(key);
+        if (slot >= 0) {
+            values[slot] += increment;
+            return values[slot];
+        }
+        insertAt(-slot - 1, key, increment);
+        return increment;
+    }
+
+    /**
+     * Stores a new entry in the given empty slot, growing the table if needed.
+     */
+    private void insertAt(int slot, long key, long value) {
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        if (size > keys.length * LOAD_FACTOR) {
+            resize();
+        }
+    }
+
+    /**
+     * Doubles the table and reinserts every entry
+     */
+    private void resize() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new long[oldValues.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = -findSlot(oldKeys[i]) - 1;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Removes the given key and returns its value.
+     *
+     * @throws NoSuchKeyException if the dictionary does not contain the given key.
+     */
+    public long remove(long key) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                throw new NoSuchKeyException();
+            }
+            hasZeroKey = false;
+            return zeroValue;
+        }
+        int slot = findSlot(key);
+        if (slot < 0) {
+            throw new NoSuchKeyException();
+        }
+        long value = values[slot];
+
+        // Backward-shift: move later entries of the run into the gap whenever
+        // the gap lies between their home slot and where they are now
+        int mask = keys.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != 0) {
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = 0;
+        values[gap] = 0;
+        size--;
+        return value;
+    }
+
+    /**
+     * Returns 'true' if the dictionary contains the given key and 'false' otherwise.
+     */
+    public boolean containsKey(long key) {
+        return key == 0 ? hasZeroKey : findSlot(key) >= 0;
+    }
+
+    /**
+     * Returns the number of key-value pairs stored in this dictionary.
+     */
+    public int size() {
+        return hasZeroKey ? size + 1 : size;
+    }
+
+    /**
+     * Returns 'true' if this dictionary is empty and 'false' otherwise.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns a cursor positioned before the first entry. Like an iterator,
+     * it is invalidated by adding or removing keys.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Walks the entries without allocating anything per entry:
+     *
+     *     LongLongDictionary.Cursor cursor = dict.cursor();
+     *     while (cursor.advance()) {
+     *         use(cursor.key(), cursor.value());
+     *     }
+     */
+    public class Cursor {
+        // -1 while positioned on the zero key, otherwise the current slot
+        private int slot;
+        private boolean zeroPending;
+
+        private Cursor() {
+            reset();
+        }
+
+        /**
+         * Moves the cursor back before the first entry so it can be reused.
+         */
+        public void reset() {
+            slot = -2;
+            zeroPending = hasZeroKey;
+        }
+
+        /**
+         * Moves to the next entry. Returns false once there are no more entries.
+         */
+        public boolean advance() {
+            if (zeroPending) {
+                zeroPending = false;
+                slot = -1;
+                return true;
+            }
+            slot = Math.max(slot + 1, 0);
+            while (slot < keys.length && keys[slot] == 0) {
+                slot++;
+            }
+            return slot < keys.length;
+        }
+
+        /**
+         * Returns the key of the current entry.
+         */
+        public long key() {
+            return slot == -1 ? 0 : keys[slot];
+        }
+
+        /**
+         * Returns the value of the current entry.
+         */
+        public long value() {
+            return slot == -1 ? zeroValue : values[slot];
+        }
+    }
+}
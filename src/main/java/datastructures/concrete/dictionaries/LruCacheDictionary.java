@@ -0,0 +1,351 @@
+package datastructures.concrete.dictionaries;
+
+import datastructures.concrete.KVPair;
+import datastructures.interfaces.IDictionary;
+import misc.exceptions.NoSuchKeyException;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * A dictionary that holds at most a fixed number of entries, evicting the least
+ * recently used entry whenever adding a key would go over that limit.
+ *
+ * Alternatively, the cache can be bounded by total weight: a Weigher gives
+ * each entry a weight (say, its size in bytes) and least recently used entries
+ * are evicted until the total is back under the maximum. An entry that
+ * weighs more than the maximum on its own is evicted as soon as it is put.
+ *
+ * Each entry is a node in an intrusive doubly linked list (like the nodes in
+ * DoubleLinkedList), ordered from least to most recently used, and a
+ * ChainedHashDictionary maps each key to its node. That way get, put and
+ * remove can all unlink or relink a node in O(1).
+ *
+ * get, getOrDefault, computeIfAbsent and put count as uses of a key;
+ * containsKey and iteration do not. Lookups through get, getOrDefault and
+ * computeIfAbsent are counted as hits or misses.
+ *
+ * See IDictionary for more details on what each method should do.
+ */
+public class LruCacheDictionary<K, V> implements IDictionary<K, V> {
+    private final long maximumWeight;
+    private final Weigher<? super K, ? super V> weigher;
+    private final IDictionary<K, Node<K, V>> index;
+    private long weight;
+
+    // front is the least recently used entry, back the most recently used
+    private Node<K, V> front;
+    private Node<K, V> back;
+    // Bumped whenever the list is reordered, so iterators can detect it
+    private int modCount;
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long evictionWeight;
+
+    /**
+     * Creates an empty cache that holds at most the given number of entries.
+     */
+    public LruCacheDictionary(int maximumSize) {
+        this(maximumSize, (key, value) -> 1);
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive");
+        }
+    }
+
+    /**
+     * Creates an empty cache whose entries weigh at most the given total,
+     * according to the given weigher.
+     */
+    public LruCacheDictionary(long maximumWeight, Weigher<? super K, ? super V> weigher) {
+        if (maximumWeight < 0) {
+            throw new IllegalArgumentException("maximumWeight must be non-negative");
+        }
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.index = new ChainedHashDictionary<>();
+        this.weight = 0;
+        this.front = null;
+        this.back = null;
+        this.modCount = 0;
+    }
+
+    /**
+     * Returns the maximum total weight of the entries in this cache. If the
+     * cache is bounded by entry count, this is the maximum number of entries.
+     */
+    public long maximumWeight() {
+        return maximumWeight;
+    }
+
+    /**
+     * Returns the total weight of the entries in this cache.
+     */
+    public long weight() {
+        return weight;
+    }
+
+    /**
+     * Returns the number of lookups that found their key.
+     */
+    public long hitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of lookups that did not find their key.
+     */
+    public long missCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of entries evicted to make room for new ones.
+     */
+    public long evictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns the total weight of the entries evicted to make room for new ones.
+     */
+    public long evictionWeight() {
+        return evictionWeight;
+    }
+
+    /**
+     * Returns the fraction of lookups that were hits, or 0 if there have been none.
+     */
+    public double hitRate() {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 0.0 : (double) hitCount / lookups;
+    }
+
+    /**
+     * Resets the hit, miss and eviction counts to zero.
+     */
+    public void resetStats() {
+        hitCount = 0;
+        missCount = 0;
+        evictionCount = 0;
+        evictionWeight = 0;
+    }
+
+    /**
+     * Looks up the node for the given key, counting the lookup as a hit or miss
+     * and marking the key as most recently used. Returns null if the key is absent.
+     */
+    private Node<K, V> access(K key) {
+        Node<K, V> node = index.getOrDefault(key, null);
+        if (node == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        moveToBack(node);
+        return node;
+    }
+
+    /**
+     * Returns the value for the given key. Throws a NoSuchKeyException if the
+     * key doesn't exist in the dictionary
+     */
+    @Override
+    public V get(K key) {
+        Node<K, V> node = access(key);
+        if (node == null) {
+            throw new NoSuchKeyException();
+        }
+        return node.value;
+    }
+
+    @Override
+    public V getOrDefault(K key, V defaultValue) {
+        Node<K, V> node = access(key);
+        return node == null ? defaultValue : node.value;
+    }
+
+    /**
+     * Puts the given key and value into the dictionary, replacing the old
+     * value if the key already exists. Evicts least recently used entries
+     * until the cache is back within its bound.
+     */
+    @Override
+    public void put(K key, V value) {
+        int entryWeight = weigher.weigh(key, value);
+        if (entryWeight < 0) {
+            throw new IllegalArgumentException("weight must be non-negative");
+        }
+        Node<K, V> node = index.getOrDefault(key, null);
+        if (node != null) {
+            weight += entryWeight - node.weight;
+            node.value = value;
+            node.weight = entryWeight;
+            moveToBack(node);
+        } else {
+            node = new Node<>(key, value, entryWeight);
+            index.put(key, node);
+            weight += entryWeight;
+            linkAtBack(node);
+        }
+        while (weight > maximumWeight) {
+            Node<K, V> victim = front;
+            evictionCount++;
+            evictionWeight += victim.weight;
+            weight -= victim.weight;
+            index.remove(victim.key);
+            unlink(victim);
+        }
+    }
+
+    /**
+     * Returns the cached value for the key, or computes, caches and returns
+     * it if the key is absent. A null result is not cached.
+     */
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        Node<K, V> node = access(key);
+        if (node != null) {
+            return node.value;
+        }
+        V value = mappingFunction.apply(key);
+        if (value != null) {
+            this.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Removes the given key and returns its value. Throws a NoSuchKeyException
+     * if the key doesn't exist in the dictionary
+     */
+    @Override
+    public V remove(K key) {
+        Node<K, V> node = index.remove(key);
+        weight -= node.weight;
+        unlink(node);
+        return node.value;
+    }
+
+    /**
+     * Returns true if the dictionary contains the key, false otherwise. This
+     * neither counts as a use of the key nor as a hit or miss.
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return index.containsKey(key);
+    }
+
+    /**
+     * Returns the number of key-value pairs in the dictionary
+     */
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    private void linkAtBack(Node<K, V> node) {
+        node.prev = back;
+        node.next = null;
+        if (back == null) {
+            front = node;
+        } else {
+            back.next = node;
+        }
+        back = node;
+        modCount++;
+    }
+
+    private void unlink(Node<K, V> node) {
+        if (node.prev == null) {
+            front = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            back = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+        modCount++;
+    }
+
+    private void moveToBack(Node<K, V> node) {
+        if (node != back) {
+            unlink(node);
+            linkAtBack(node);
+        }
+    }
+
+    /**
+     * Calls the action on each pair, from least to most recently used
+     */
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (Node<K, V> node = front; node != null; node = node.next) {
+            action.accept(node.key, node.value);
+        }
+    }
+
+    /**
+     * Returns an iterator over the pairs from least to most recently used.
+     * Throws a ConcurrentModificationException if the cache is used while
+     * iterating, since even a get reorders the entries.
+     */
+    @Override
+    public Iterator<KVPair<K, V>> iterator() {
+        return new LruIterator();
+    }
+
+    private static class Node<K, V> {
+        public final K key;
+        public V value;
+        public int weight;
+        public Node<K, V> prev;
+        public Node<K, V> next;
+
+        public Node(K key, V value, int weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    private class LruIterator implements Iterator<KVPair<K, V>> {
+        private Node<K, V> current;
+        private int expectedModCount;
+
+        public LruIterator() {
+            this.current = front;
+            this.expectedModCount = modCount;
+        }
+
+        /**
+         * Returns true if there is another pair, false otherwise
+         */
+        public boolean hasNext() {
+            return current != null;
+        }
+
+        /**
+         * Returns the next KVPair, throws a NoSuchElementException if there isn't one
+         */
+        public KVPair<K, V> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (current == null) {
+                throw new NoSuchElementException();
+            }
+            KVPair<K, V> pair = new KVPair<>(current.key, current.value);
+            current = current.next;
+            return pair;
+        }
+    }
+}
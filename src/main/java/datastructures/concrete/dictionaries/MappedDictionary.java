@@ -0,0 +1,401 @@
+package datastructures.concrete.dictionaries;
+
+import datastructures.concrete.KVPair;
+import datastructures.concrete.dictionaries.OffHeapDictionary.Codec;
+import datastructures.interfaces.IDictionary;
+import misc.exceptions.NoSuchKeyException;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A read-only dictionary that answers lookups straight out of a memory-mapped
+ * hash table file, so opening even a huge table costs next to nothing and the
+ * pages are shared through the OS page cache by every process that maps the file.
+ *
+ * Use write() to turn any IDictionary into such a file. The layout (all
+ * numbers big-endian) is:
+ *
+ *     header:  [magic: int][version: int][entry count: int][slot count: int]
+ *     slots:   slot count x [key hash: int][record offset: long]   (offset 0 = empty)
+ *     records: [key length: int][value length: int][key bytes][value bytes]
+ *
+ * A length of -1 stands for null. The slot count is a power of two and keys
+ * are placed by linear probing on a hash of their encoded bytes, so a lookup
+ * reads a few slots and compares key bytes in place; only the value that is
+ * returned is ever decoded.
+ *
+ * put() and remove() throw UnsupportedOperationException.
+ *
+ * One instance can be shared by any number of reader threads. close() makes
+ * every later call throw IllegalStateException, but it doesn't force the file
+ * to be unmapped: a read or iterator already running when close() is called
+ * keeps using the mapping, and the garbage collector unmaps the file once
+ * nothing refers to it any more. (Unmapping while another thread still reads
+ * the pages would crash the JVM.) On Windows the file can't be deleted or
+ * replaced until that has happened.
+ */
+public class MappedDictionary<K, V> implements IDictionary<K, V>, AutoCloseable {
+    private static final int MAGIC = 0x44494354; // "DICT"
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER_SIZE = 4 * Integer.BYTES;
+    private static final int SLOT_SIZE = Integer.BYTES + Long.BYTES;
+    private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int NULL_LENGTH = -1;
+    // Tables are written at most half full, which keeps probe runs short
+    private static final double LOAD_FACTOR = 0.5;
+    // A single MappedByteBuffer can't exceed 2 GB, so big files are mapped in pieces
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+
+    private final Codec<K> keyCodec;
+    private final Codec<V> valueCodec;
+    // Null once closed. Each operation reads this field once and works on that
+    // array, so a concurrent close() can't pull the mapping out from under it.
+    private volatile MappedByteBuffer[] segments;
+    private final int size;
+    private final int slotCount;
+
+    /**
+     * Maps the given file, which must have been produced by write().
+     *
+     * @throws IOException if the file can't be read or is not a dictionary file
+     */
+    public MappedDictionary(Path path, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        MappedByteBuffer[] mapped;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < FILE_HEADER_SIZE) {
+                throw new IOException("Not a dictionary file: " + path);
+            }
+            int numSegments = (int) ((length + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+            mapped = new MappedByteBuffer[numSegments];
+            for (int i = 0; i < numSegments; i++) {
+                long start = i * SEGMENT_SIZE;
+                mapped[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, length - start));
+            }
+        }
+        if (readInt(mapped, 0) != MAGIC || readInt(mapped, 4) != VERSION) {
+            throw new IOException("Not a dictionary file: " + path);
+        }
+        int count = readInt(mapped, 8);
+        int slots = readInt(mapped, 12);
+        // A bad slot count would make probing run off the table or never stop
+        if (slots <= 0 || (slots & (slots - 1)) != 0 || count < 0 || count > slots * LOAD_FACTOR
+                || length(mapped) < FILE_HEADER_SIZE + (long) slots * SLOT_SIZE) {
+            throw new IOException("Corrupt or truncated dictionary file: " + path);
+        }
+        this.size = count;
+        this.slotCount = slots;
+        this.segments = mapped;
+    }
+
+    private static long length(MappedByteBuffer[] mapped) {
+        return (mapped.length - 1) * SEGMENT_SIZE + mapped[mapped.length - 1].capacity();
+    }
+
+    /**
+     * Writes every pair in the given dictionary to a new hash table file at the
+     * given path, replacing any existing file.
+     *
+     * The table is written to a temporary file in the same directory and then
+     * renamed over the old one, so a process that still has the old file
+     * mapped keeps reading the old version instead of seeing it change.
+     */
+    public static <K, V> void write(IDictionary<K, V> dict, Path path, Codec<K> keyCodec, Codec<V> valueCodec)
+            throws IOException {
+        int slotCount = 1;
+        while (slotCount * LOAD_FACTOR < dict.size()) {
+            slotCount *= 2;
+        }
+
+        Path target = path.toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            writeTable(dict, temp, keyCodec, valueCodec, slotCount);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static <K, V> void writeTable(IDictionary<K, V> dict, Path path, Codec<K> keyCodec, Codec<V> valueCodec,
+                                          int slotCount) throws IOException {
+        int[] hashes = new int[slotCount];
+        long[] offsets = new long[slotCount];
+        int mask = slotCount - 1;
+        int count = 0;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            // Records go after the slot table, which is filled in once every offset is known
+            long offset = FILE_HEADER_SIZE + (long) slotCount * SLOT_SIZE;
+            channel.position(offset);
+            OutputStream stream = Channels.newOutputStream(channel);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+            for (KVPair<K, V> pair : dict) {
+                byte[] keyBytes = pair.getKey() == null ? null : keyCodec.encode(pair.getKey());
+                byte[] valueBytes = pair.getValue() == null ? null : valueCodec.encode(pair.getValue());
+                int hash = hash(keyBytes);
+                int slot = hash & mask;
+                while (offsets[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                hashes[slot] = hash;
+                offsets[slot] = offset;
+                count++;
+
+                out.writeInt(keyBytes == null ? NULL_LENGTH : keyBytes.length);
+                out.writeInt(valueBytes == null ? NULL_LENGTH : valueBytes.length);
+                if (keyBytes != null) {
+                    out.write(keyBytes);
+                }
+                if (valueBytes != null) {
+                    out.write(valueBytes);
+                }
+                offset += RECORD_HEADER_SIZE + (keyBytes == null ? 0 : keyBytes.length)
+                        + (valueBytes == null ? 0 : valueBytes.length);
+            }
+            out.flush();
+
+            channel.position(0);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(count);
+            out.writeInt(slotCount);
+            for (int i = 0; i < slotCount; i++) {
+                out.writeInt(hashes[i]);
+                out.writeLong(offsets[i]);
+            }
+            out.flush();
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Hashes the encoded key bytes. This is part of the file format: changing
+     * it makes existing files unreadable.
+     */
+    private static int hash(byte[] keyBytes) {
+        if (keyBytes == null) {
+            return 0;
+        }
+        int hash = Arrays.hashCode(keyBytes) * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Returns the mapped segments, throwing IllegalStateException if the dictionary is closed
+     */
+    private MappedByteBuffer[] ensureOpen() {
+        MappedByteBuffer[] mapped = segments;
+        if (mapped == null) {
+            throw new IllegalStateException("dictionary is closed");
+        }
+        return mapped;
+    }
+
+    private static byte readByte(MappedByteBuffer[] mapped, long position) {
+        return mapped[(int) (position >>> SEGMENT_SHIFT)].get((int) (position & (SEGMENT_SIZE - 1)));
+    }
+
+    private static int readInt(MappedByteBuffer[] mapped, long position) {
+        int offset = (int) (position & (SEGMENT_SIZE - 1));
+        if (offset + Integer.BYTES <= SEGMENT_SIZE) {
+            return mapped[(int) (position >>> SEGMENT_SHIFT)].getInt(offset);
+        }
+        // Straddles two segments
+        int result = 0;
+        for (int i = 0; i < Integer.BYTES; i++) {
+            result = (result << 8) | (readByte(mapped, position + i) & 0xff);
+        }
+        return result;
+    }
+
+    private static long readLong(MappedByteBuffer[] mapped, long position) {
+        return ((long) readInt(mapped, position) << 32) | (readInt(mapped, position + Integer.BYTES) & 0xffffffffL);
+    }
+
+    private static byte[] readBytes(MappedByteBuffer[] mapped, long position, int length) {
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = readByte(mapped, position + i);
+        }
+        return bytes;
+    }
+
+    private static long slotPosition(int slot) {
+        return FILE_HEADER_SIZE + (long) slot * SLOT_SIZE;
+    }
+
+    /**
+     * Returns true if the record at the given offset holds a key with exactly the given bytes
+     */
+    private static boolean keyMatches(MappedByteBuffer[] mapped, long record, byte[] keyBytes) {
+        int length = readInt(mapped, record);
+        if (keyBytes == null || length == NULL_LENGTH) {
+            return keyBytes == null && length == NULL_LENGTH;
+        }
+        if (length != keyBytes.length) {
+            return false;
+        }
+        long start = record + RECORD_HEADER_SIZE;
+        for (int i = 0; i < length; i++) {
+            if (readByte(mapped, start + i) != keyBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the file offset of the record for the given key, or 0 if the key is absent
+     */
+    private long findRecord(MappedByteBuffer[] mapped, K key) {
+        byte[] keyBytes = key == null ? null : keyCodec.encode(key);
+        int hash = hash(keyBytes);
+        int mask = slotCount - 1;
+        int slot = hash & mask;
+        // write() always leaves empty slots; a table without any is corrupt
+        for (int probes = 0; probes < slotCount; probes++) {
+            long position = slotPosition(slot);
+            long record = readLong(mapped, position + Integer.BYTES);
+            if (record == 0) {
+                return 0;
+            }
+            if (readInt(mapped, position) == hash && keyMatches(mapped, record, keyBytes)) {
+                return record;
+            }
+            slot = (slot + 1) & mask;
+        }
+        throw new IllegalStateException("corrupt dictionary file: slot table has no empty slot");
+    }
+
+    private K readKey(MappedByteBuffer[] mapped, long record) {
+        byte[] bytes = readBytes(mapped, record + RECORD_HEADER_SIZE, readInt(mapped, record));
+        return bytes == null ? null : keyCodec.decode(bytes);
+    }
+
+    private V readValue(MappedByteBuffer[] mapped, long record) {
+        long valueStart = record + RECORD_HEADER_SIZE + Math.max(readInt(mapped, record), 0);
+        byte[] bytes = readBytes(mapped, valueStart, readInt(mapped, record + Integer.BYTES));
+        return bytes == null ? null : valueCodec.decode(bytes);
+    }
+
+    /**
+     * Returns the value for the given key. Throws a NoSuchKeyException if the
+     * key doesn't exist in the dictionary
+     */
+    @Override
+    public V get(K key) {
+        MappedByteBuffer[] mapped = ensureOpen();
+        long record = findRecord(mapped, key);
+        if (record == 0) {
+            throw new NoSuchKeyException();
+        }
+        return readValue(mapped, record);
+    }
+
+    @Override
+    public V getOrDefault(K key, V defaultValue) {
+        MappedByteBuffer[] mapped = ensureOpen();
+        long record = findRecord(mapped, key);
+        return record == 0 ? defaultValue : readValue(mapped, record);
+    }
+
+    /**
+     * Always throws UnsupportedOperationException: mapped dictionaries are read-only
+     */
+    @Override
+    public void put(K key, V value) {
+        throw new UnsupportedOperationException("MappedDictionary is read-only");
+    }
+
+    /**
+     * Always throws UnsupportedOperationException: mapped dictionaries are read-only
+     */
+    @Override
+    public V remove(K key) {
+        throw new UnsupportedOperationException("MappedDictionary is read-only");
+    }
+
+    /**
+     * Returns true if the dictionary contains the key, false otherwise
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return findRecord(ensureOpen(), key) != 0;
+    }
+
+    /**
+     * Returns the number of key-value pairs in the dictionary
+     */
+    @Override
+    public int size() {
+        ensureOpen();
+        return size;
+    }
+
+    /**
+     * Closes the dictionary, so later calls throw IllegalStateException. The
+     * file is unmapped by the garbage collector once reads and iterators that
+     * were already running have finished. Calling close() more than once has
+     * no further effect.
+     */
+    @Override
+    public void close() {
+        segments = null;
+    }
+
+    /**
+     * Returns the iterator for MappedDictionary, which walks the slot table in order
+     */
+    @Override
+    public Iterator<KVPair<K, V>> iterator() {
+        return new MappedIterator(ensureOpen());
+    }
+
+    private class MappedIterator implements Iterator<KVPair<K, V>> {
+        // Keeps the mapping alive while the iterator is in use, even past close()
+        private final MappedByteBuffer[] mapped;
+        private int slot;
+
+        public MappedIterator(MappedByteBuffer[] mapped) {
+            this.mapped = mapped;
+            this.slot = 0;
+        }
+
+        public boolean hasNext() {
+            while (slot < slotCount && readLong(mapped, slotPosition(slot) + Integer.BYTES) == 0) {
+                slot++;
+            }
+            return slot < slotCount;
+        }
+
+        public KVPair<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            long record = readLong(mapped, slotPosition(slot) + Integer.BYTES);
+            slot++;
+            return new KVPair<>(readKey(mapped, record), readValue(mapped, record));
+        }
+    }
+}
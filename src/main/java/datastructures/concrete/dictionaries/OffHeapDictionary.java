@@ -0,0 +1,523 @@
+package datastructures.concrete.dictionaries;
+
+import datastructures.concrete.KVPair;
+import datastructures.interfaces.IDictionary;
+import misc.exceptions.NoSuchKeyException;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A hash dictionary that keeps its keys and values outside the Java heap.
+ *
+ * Every entry is serialized with the given codecs and appended to an arena
+ * of direct ByteBuffers as a record of the form
+ *
+ *     [key length: int][value length: int][key bytes][value bytes]
+ *
+ * (a length of -1 stands for null). The only on-heap state is an
+ * open-addressed index made of two primitive arrays holding each record's
+ * hash and arena address, which the garbage collector never has to trace.
+ *
+ * Keys are compared by their encoded bytes, so a key codec must always
+ * encode equal keys to identical bytes. Replacing or removing an entry leaves
+ * its old record behind as garbage; once garbage outweighs live data the
+ * arena is compacted into fresh buffers.
+ *
+ * Call close() when done to release the native memory right away instead of
+ * waiting for the buffers to be garbage collected. A closed dictionary throws
+ * IllegalStateException from every method.
+ */
+public class OffHeapDictionary<K, V> implements IDictionary<K, V>, AutoCloseable {
+    /**
+     * Converts objects to and from the bytes stored in the arena.
+     */
+    public interface Codec<T> {
+        /**
+         * Returns the serialized form of the given (non-null) object.
+         */
+        byte[] encode(T value);
+
+        /**
+         * Rebuilds an object from bytes produced by encode().
+         */
+        T decode(byte[] bytes);
+    }
+
+    public static final Codec<String> STRING_CODEC = new Codec<String>() {
+        public byte[] encode(String value) {
+            return value.getBytes(StandardCharsets.UTF_8);
+        }
+
+        public String decode(byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    public static final Codec<byte[]> BYTES_CODEC = new Codec<byte[]>() {
+        public byte[] encode(byte[] value) {
+            return value;
+        }
+
+        public byte[] decode(byte[] bytes) {
+            return bytes;
+        }
+    };
+
+    public static final Codec<Integer> INTEGER_CODEC = new Codec<Integer>() {
+        public byte[] encode(Integer value) {
+            return ByteBuffer.allocate(Integer.BYTES).putInt(value).array();
+        }
+
+        public Integer decode(byte[] bytes) {
+            return ByteBuffer.wrap(bytes).getInt();
+        }
+    };
+
+    public static final Codec<Long> LONG_CODEC = new Codec<Long>() {
+        public byte[] encode(Long value) {
+            return ByteBuffer.allocate(Long.BYTES).putLong(value).array();
+        }
+
+        public Long decode(byte[] bytes) {
+            return ByteBuffer.wrap(bytes).getLong();
+        }
+    };
+
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final double LOAD_FACTOR = 0.75;
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int NULL_LENGTH = -1;
+
+    private final Codec<K> keyCodec;
+    private final Codec<V> valueCodec;
+    private final int chunkSize;
+
+    // Arena: records are appended to the last chunk; an address packs the
+    // chunk index into the high 32 bits and the offset into the low 32 bits
+    private List<ByteBuffer> chunks;
+    private int writeOffset;
+    private long liveBytes;
+    private long garbageBytes;
+
+    // Index: addresses[i] is 0 for an empty slot, otherwise record address + 1
+    private long[] addresses;
+    private int[] hashes;
+    private int size;
+    private boolean closed;
+
+    public OffHeapDictionary(Codec<K> keyCodec, Codec<V> valueCodec) {
+        this(keyCodec, valueCodec, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates an empty dictionary whose arena grows in direct buffers of the
+     * given size (records that don't fit get a buffer of their own).
+     */
+    public OffHeapDictionary(Codec<K> keyCodec, Codec<V> valueCodec, int chunkSize) {
+        if (chunkSize < HEADER_SIZE) {
+            throw new IllegalArgumentException("chunkSize is too small");
+        }
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.chunkSize = chunkSize;
+        this.chunks = new ArrayList<>();
+        this.writeOffset = 0;
+        this.addresses = new long[INITIAL_CAPACITY];
+        this.hashes = new int[INITIAL_CAPACITY];
+        this.size = 0;
+        this.closed = false;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("dictionary is closed");
+        }
+    }
+
+    private byte[] encodeKey(K key) {
+        return key == null ? null : keyCodec.encode(key);
+    }
+
+    private static int hash(byte[] keyBytes) {
+        if (keyBytes == null) {
+            return 0;
+        }
+        int hash = Arrays.hashCode(keyBytes) * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private ByteBuffer chunkOf(long address) {
+        return chunks.get((int) (address >>> 32));
+    }
+
+    private static int offsetOf(long address) {
+        return (int) address;
+    }
+
+    /**
+     * Returns the number of arena bytes the record at the given address takes up
+     */
+    private int recordSize(long address) {
+        ByteBuffer chunk = chunkOf(address);
+        int offset = offsetOf(address);
+        return HEADER_SIZE + Math.max(chunk.getInt(offset), 0) + Math.max(chunk.getInt(offset + 4), 0);
+    }
+
+    /**
+     * Returns true if the record at the given address holds a key with exactly the given bytes
+     */
+    private boolean keyMatches(long address, byte[] keyBytes) {
+        ByteBuffer chunk = chunkOf(address);
+        int offset = offsetOf(address);
+        int length = chunk.getInt(offset);
+        if (keyBytes == null || length == NULL_LENGTH) {
+            return keyBytes == null && length == NULL_LENGTH;
+        }
+        if (length != keyBytes.length) {
+            return false;
+        }
+        int start = offset + HEADER_SIZE;
+        for (int i = 0; i < length; i++) {
+            if (chunk.get(start + i) != keyBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies length bytes starting at the given offset out of the chunk
+     */
+    private static byte[] readBytes(ByteBuffer chunk, int offset, int length) {
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        ByteBuffer view = chunk.duplicate();
+        view.position(offset);
+        view.get(bytes);
+        return bytes;
+    }
+
+    private K readKey(long address) {
+        ByteBuffer chunk = chunkOf(address);
+        int offset = offsetOf(address);
+        byte[] bytes = readBytes(chunk, offset + HEADER_SIZE, chunk.getInt(offset));
+        return bytes == null ? null : keyCodec.decode(bytes);
+    }
+
+    private V readValue(long address) {
+        ByteBuffer chunk = chunkOf(address);
+        int offset = offsetOf(address);
+        int valueOffset = offset + HEADER_SIZE + Math.max(chunk.getInt(offset), 0);
+        byte[] bytes = readBytes(chunk, valueOffset, chunk.getInt(offset + 4));
+        return bytes == null ? null : valueCodec.decode(bytes);
+    }
+
+    /**
+     * Appends a record to the arena and returns its address
+     */
+    private long append(byte[] keyBytes, byte[] valueBytes) {
+        int keyLength = keyBytes == null ? NULL_LENGTH : keyBytes.length;
+        int valueLength = valueBytes == null ? NULL_LENGTH : valueBytes.length;
+        int recordSize = HEADER_SIZE + Math.max(keyLength, 0) + Math.max(valueLength, 0);
+        if (chunks.isEmpty() || writeOffset + recordSize > chunks.get(chunks.size() - 1).capacity()) {
+            chunks.add(ByteBuffer.allocateDirect(Math.max(chunkSize, recordSize)));
+            writeOffset = 0;
+        }
+        ByteBuffer chunk = chunks.get(chunks.size() - 1);
+        long address = ((long) (chunks.size() - 1) << 32) | writeOffset;
+        chunk.putInt(writeOffset, keyLength);
+        chunk.putInt(writeOffset + 4, valueLength);
+        ByteBuffer view = chunk.duplicate();
+        view.position(writeOffset + HEADER_SIZE);
+        if (keyBytes != null) {
+            view.put(keyBytes);
+        }
+        if (valueBytes != null) {
+            view.put(valueBytes);
+        }
+        writeOffset += recordSize;
+        liveBytes += recordSize;
+        return address;
+    }
+
+    /**
+     * Returns the index slot holding the given key. If the key is absent,
+     * returns -(slot it would be added at) - 1 instead.
+     */
+    private int findSlot(byte[] keyBytes, int hash) {
+        int mask = addresses.length - 1;
+        int slot = hash & mask;
+        while (addresses[slot] != 0) {
+            if (hashes[slot] == hash && keyMatches(addresses[slot] - 1, keyBytes)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -slot - 1;
+    }
+
+    /**
+     * Returns the value for the given key. Throws a NoSuchKeyException if the
+     * key doesn't exist in the dictionary
+     */
+    @Override
+    public V get(K key) {
+        ensureOpen();
+        byte[] keyBytes = encodeKey(key);
+        int slot = findSlot(keyBytes, hash(keyBytes));
+        if (slot < 0) {
+            throw new NoSuchKeyException();
+        }
+        return readValue(addresses[slot] - 1);
+    }
+
+    /**
+     * Puts the given key and value into the dictionary, replacing the old
+     * value if the key already exists
+     */
+    @Override
+    public void put(K key, V value) {
+        ensureOpen();
+        byte[] keyBytes = encodeKey(key);
+        int hash = hash(keyBytes);
+        int slot = findSlot(keyBytes, hash);
+        long address = append(keyBytes, value == null ? null : valueCodec.encode(value));
+        if (slot >= 0) {
+            discard(addresses[slot] - 1);
+            addresses[slot] = address + 1;
+            compactIfNeeded();
+            return;
+        }
+        slot = -slot - 1;
+        addresses[slot] = address + 1;
+        hashes[slot] = hash;
+        size++;
+        if (size > addresses.length * LOAD_FACTOR) {
+            resizeIndex();
+        }
+    }
+
+    /**
+     * Removes the given key and returns its value. Throws a NoSuchKeyException
+     * if the key doesn't exist in the dictionary
+     */
+    @Override
+    public V remove(K key) {
+        ensureOpen();
+        byte[] keyBytes = encodeKey(key);
+        int slot = findSlot(keyBytes, hash(keyBytes));
+        if (slot < 0) {
+            throw new NoSuchKeyException();
+        }
+        V value = readValue(addresses[slot] - 1);
+        discard(addresses[slot] - 1);
+
+        // Backward-shift deletion, as in IntIntDictionary
+        int mask = addresses.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (addresses[next] != 0) {
+            int home = hashes[next] & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                addresses[gap] = addresses[next];
+                hashes[gap] = hashes[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        addresses[gap] = 0;
+        hashes[gap] = 0;
+        size--;
+        compactIfNeeded();
+        return value;
+    }
+
+    /**
+     * Returns true if the dictionary contains the key, false otherwise
+     */
+    @Override
+    public boolean containsKey(K key) {
+        ensureOpen();
+        byte[] keyBytes = encodeKey(key);
+        return findSlot(keyBytes, hash(keyBytes)) >= 0;
+    }
+
+    /**
+     * Returns the number of key-value pairs in the dictionary
+     */
+    @Override
+    public int size() {
+        ensureOpen();
+        return size;
+    }
+
+    /**
+     * Returns the number of bytes of native memory currently reserved by the arena
+     */
+    public long allocatedBytes() {
+        ensureOpen();
+        long total = 0;
+        for (ByteBuffer chunk : chunks) {
+            total += chunk.capacity();
+        }
+        return total;
+    }
+
+    /**
+     * Marks the record at the given address as garbage
+     */
+    private void discard(long address) {
+        int recordSize = recordSize(address);
+        liveBytes -= recordSize;
+        garbageBytes += recordSize;
+    }
+
+    /**
+     * Doubles the index and reinserts every slot; the arena is untouched
+     */
+    private void resizeIndex() {
+        long[] oldAddresses = addresses;
+        int[] oldHashes = hashes;
+        addresses = new long[oldAddresses.length * 2];
+        hashes = new int[oldHashes.length * 2];
+        int mask = addresses.length - 1;
+        for (int i = 0; i < oldAddresses.length; i++) {
+            if (oldAddresses[i] != 0) {
+                int slot = oldHashes[i] & mask;
+                while (addresses[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                addresses[slot] = oldAddresses[i];
+                hashes[slot] = oldHashes[i];
+            }
+        }
+    }
+
+    /**
+     * Copies every live record into fresh buffers and frees the old ones once
+     * more than half of the arena is garbage
+     */
+    private void compactIfNeeded() {
+        if (garbageBytes <= liveBytes || garbageBytes < chunkSize) {
+            return;
+        }
+        List<ByteBuffer> oldChunks = chunks;
+        chunks = new ArrayList<>();
+        writeOffset = 0;
+        liveBytes = 0;
+        garbageBytes = 0;
+        for (int i = 0; i < addresses.length; i++) {
+            if (addresses[i] != 0) {
+                long address = addresses[i] - 1;
+                ByteBuffer chunk = oldChunks.get((int) (address >>> 32));
+                int offset = offsetOf(address);
+                int keyLength = chunk.getInt(offset);
+                int valueLength = chunk.getInt(offset + 4);
+                byte[] keyBytes = readBytes(chunk, offset + HEADER_SIZE, keyLength);
+                byte[] valueBytes = readBytes(chunk, offset + HEADER_SIZE + Math.max(keyLength, 0), valueLength);
+                addresses[i] = append(keyBytes, valueBytes) + 1;
+            }
+        }
+        for (ByteBuffer chunk : oldChunks) {
+            release(chunk);
+        }
+    }
+
+    /**
+     * Frees all native memory held by this dictionary. Calling close() more
+     * than once has no further effect.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (ByteBuffer chunk : chunks) {
+            release(chunk);
+        }
+        chunks = null;
+        addresses = null;
+        hashes = null;
+    }
+
+    // sun.misc.Unsafe.invokeCleaner, looked up once, or null if this JVM doesn't offer it
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            unsafe = null;
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    /**
+     * Frees a direct buffer's memory immediately where the JVM allows it.
+     * Otherwise the memory is freed once the buffer is garbage collected.
+     */
+    private static void release(ByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            // Fall back to letting the garbage collector free it
+        }
+    }
+
+    /**
+     * Returns the iterator for OffHeapDictionary. Each step decodes one record.
+     */
+    @Override
+    public Iterator<KVPair<K, V>> iterator() {
+        ensureOpen();
+        return new OffHeapIterator();
+    }
+
+    private class OffHeapIterator implements Iterator<KVPair<K, V>> {
+        private int index;
+
+        public OffHeapIterator() {
+            this.index = 0;
+        }
+
+        public boolean hasNext() {
+            while (index < addresses.length && addresses[index] == 0) {
+                index++;
+            }
+            return index < addresses.length;
+        }
+
+        public KVPair<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            long address = addresses[index] - 1;
+            index++;
+            return new KVPair<>(readKey(address), readValue(address));
+        }
+    }
+}
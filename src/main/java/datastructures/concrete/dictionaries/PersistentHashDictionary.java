@@ -0,0 +1,588 @@
+package datastructures.concrete.dictionaries;
+
+import datastructures.concrete.KVPair;
+import datastructures.interfaces.IDictionary;
+import misc.exceptions.NoSuchKeyException;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable hash dictionary stored as a hash array mapped trie (HAMT).
+ *
+ * Each level of the trie uses the next five bits of a key's hash to pick one of
+ * up to 32 slots, and a bitmap records which slots are in use so nodes only
+ * store the slots they need. plus() and minus() return a new dictionary that
+ * copies just the O(log32 n) nodes on the path to the key and shares all the
+ * others with the old one, so every version stays valid and readable forever:
+ * taking a snapshot is simply keeping a reference, and readers never block.
+ *
+ * put() and remove() throw UnsupportedOperationException. To make many
+ * changes at once, use toBuilder(): the Builder is a mutable IDictionary that
+ * edits the nodes it has already copied in place, and build() turns it back
+ * into a PersistentHashDictionary in O(1).
+ *
+ * See IDictionary for more details on what each method should do.
+ */
+public class PersistentHashDictionary<K, V> implements IDictionary<K, V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    // The deepest a trie can get: seven levels of bitmap nodes plus a collision node
+    private static final int MAX_DEPTH = 8;
+    private static final Object NOT_FOUND = new Object();
+    private static final BitmapNode EMPTY_NODE = new BitmapNode(null, 0, new Object[0]);
+
+    private final Node root;
+    private final int size;
+
+    /**
+     * Creates an empty dictionary.
+     */
+    public PersistentHashDictionary() {
+        this(EMPTY_NODE, 0);
+    }
+
+    private PersistentHashDictionary(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    private static int hash(Object key) {
+        if (key == null) {
+            return 0;
+        }
+        int hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean equal(Object a, Object b) {
+        return a == b || (a != null && a.equals(b));
+    }
+
+    /**
+     * Returns the value for the given key. Throws a NoSuchKeyException if the
+     * key doesn't exist in the dictionary
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        Object value = root.find(0, hash(key), key);
+        if (value == NOT_FOUND) {
+            throw new NoSuchKeyException();
+        }
+        return (V) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(K key, V defaultValue) {
+        Object value = root.find(0, hash(key), key);
+        return value == NOT_FOUND ? defaultValue : (V) value;
+    }
+
+    /**
+     * Returns true if the dictionary contains the key, false otherwise
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return root.find(0, hash(key), key) != NOT_FOUND;
+    }
+
+    /**
+     * Returns the number of key-value pairs in the dictionary
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a dictionary with the given pair added, replacing the old value
+     * if the key already exists. This dictionary is left unchanged.
+     */
+    public PersistentHashDictionary<K, V> plus(K key, V value) {
+        Change change = new Change();
+        Node newRoot = root.put(null, 0, hash(key), key, value, change);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentHashDictionary<>(newRoot, change.added ? size + 1 : size);
+    }
+
+    /**
+     * Returns a dictionary without the given key. This dictionary is left
+     * unchanged. Throws a NoSuchKeyException if the key doesn't exist in the
+     * dictionary
+     */
+    public PersistentHashDictionary<K, V> minus(K key) {
+        Change change = new Change();
+        Node newRoot = root.remove(null, 0, hash(key), key, change);
+        if (!change.removed) {
+            throw new NoSuchKeyException();
+        }
+        return new PersistentHashDictionary<>(newRoot == null ? EMPTY_NODE : newRoot, size - 1);
+    }
+
+    /**
+     * Always throws UnsupportedOperationException: use plus() or a Builder instead
+     */
+    @Override
+    public void put(K key, V value) {
+        throw new UnsupportedOperationException("PersistentHashDictionary is immutable; use plus()");
+    }
+
+    /**
+     * Always throws UnsupportedOperationException: use minus() or a Builder instead
+     */
+    @Override
+    public V remove(K key) {
+        throw new UnsupportedOperationException("PersistentHashDictionary is immutable; use minus()");
+    }
+
+    /**
+     * Returns a mutable builder that starts out with the pairs in this dictionary.
+     * This dictionary is never affected by changes to the builder.
+     */
+    public Builder<K, V> toBuilder() {
+        return new Builder<>(root, size);
+    }
+
+    /**
+     * Returns the iterator for PersistentHashDictionary
+     */
+    @Override
+    public Iterator<KVPair<K, V>> iterator() {
+        return new TrieIterator<>(root);
+    }
+
+    /**
+     * A mutable dictionary for building a PersistentHashDictionary with many
+     * changes. It copies each shared node the first time it changes it and
+     * edits its own copies in place after that, so a bulk load allocates
+     * about as much as a mutable hash table would.
+     */
+    public static class Builder<K, V> implements IDictionary<K, V> {
+        // Nodes whose edit field is this object belong to the builder and may be changed in place
+        private Object edit;
+        private Node root;
+        private int size;
+
+        /**
+         * Creates an empty builder.
+         */
+        public Builder() {
+            this(EMPTY_NODE, 0);
+        }
+
+        private Builder(Node root, int size) {
+            this.edit = new Object();
+            this.root = root;
+            this.size = size;
+        }
+
+        /**
+         * Returns a PersistentHashDictionary with the pairs currently in this
+         * builder. Later changes to the builder don't affect it.
+         */
+        public PersistentHashDictionary<K, V> build() {
+            // Give up ownership of every node built so far, since they are now shared
+            edit = new Object();
+            return new PersistentHashDictionary<>(root, size);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V get(K key) {
+            Object value = root.find(0, hash(key), key);
+            if (value == NOT_FOUND) {
+                throw new NoSuchKeyException();
+            }
+            return (V) value;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V getOrDefault(K key, V defaultValue) {
+            Object value = root.find(0, hash(key), key);
+            return value == NOT_FOUND ? defaultValue : (V) value;
+        }
+
+        @Override
+        public void put(K key, V value) {
+            Change change = new Change();
+            root = root.put(edit, 0, hash(key), key, value, change);
+            if (change.added) {
+                size++;
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V remove(K key) {
+            Change change = new Change();
+            Node newRoot = root.remove(edit, 0, hash(key), key, change);
+            if (!change.removed) {
+                throw new NoSuchKeyException();
+            }
+            root = newRoot == null ? EMPTY_NODE : newRoot;
+            size--;
+            return (V) change.oldValue;
+        }
+
+        @Override
+        public boolean containsKey(K key) {
+            return root.find(0, hash(key), key) != NOT_FOUND;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Iterator<KVPair<K, V>> iterator() {
+            return new TrieIterator<>(root);
+        }
+    }
+
+    /**
+     * Records what an update did
+     */
+    private static class Change {
+        public boolean added;
+        public boolean removed;
+        public Object oldValue;
+    }
+
+    private static class Entry {
+        public final int hash;
+        public final Object key;
+        public final Object value;
+
+        public Entry(int hash, Object key, Object value) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private abstract static class Node {
+        // The builder allowed to change this node in place, or null if it is frozen
+        protected Object edit;
+
+        protected Node(Object edit) {
+            this.edit = edit;
+        }
+
+        protected boolean isEditable(Object edit) {
+            return edit != null && this.edit == edit;
+        }
+
+        /**
+         * Returns the value for the key, or NOT_FOUND if it is absent
+         */
+        public abstract Object find(int shift, int hash, Object key);
+
+        /**
+         * Returns the node with the pair added, which is this node if nothing changed
+         * or if it could be changed in place
+         */
+        public abstract Node put(Object edit, int shift, int hash, Object key, Object value, Change change);
+
+        /**
+         * Returns the node without the key, or null if that leaves it empty
+         */
+        public abstract Node remove(Object edit, int shift, int hash, Object key, Change change);
+
+        /**
+         * Returns the only entry in this node if it holds exactly one entry and no children, otherwise null
+         */
+        public abstract Entry singleEntry();
+    }
+
+    private static class BitmapNode extends Node {
+        private int bitmap;
+        // Each slot holds an Entry or a child Node, in order of their bits in the bitmap
+        private Object[] slots;
+
+        public BitmapNode(Object edit, int bitmap, Object[] slots) {
+            super(edit);
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        private static int bit(int hash, int shift) {
+            return 1 << ((hash >>> shift) & MASK);
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        /**
+         * Returns the smallest node holding both a and b, which are entries or
+         * nodes found at the given depth with the given, different hashes
+         */
+        public static Node pair(Object edit, int shift, Object a, int hashA, Object b, int hashB) {
+            int bitA = bit(hashA, shift);
+            int bitB = bit(hashB, shift);
+            if (bitA == bitB) {
+                Node child = pair(edit, shift + BITS, a, hashA, b, hashB);
+                return new BitmapNode(edit, bitA, new Object[] {child});
+            }
+            Object[] slots = Integer.compareUnsigned(bitA, bitB) < 0 ? new Object[] {a, b} : new Object[] {b, a};
+            return new BitmapNode(edit, bitA | bitB, slots);
+        }
+
+        public Object find(int shift, int hash, Object key) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return NOT_FOUND;
+            }
+            Object slot = slots[index(bit)];
+            if (slot instanceof Node) {
+                return ((Node) slot).find(shift + BITS, hash, key);
+            }
+            Entry entry = (Entry) slot;
+            return entry.hash == hash && equal(entry.key, key) ? entry.value : NOT_FOUND;
+        }
+
+        public Node put(Object edit, int shift, int hash, Object key, Object value, Change change) {
+            int bit = bit(hash, shift);
+            int index = index(bit);
+            if ((bitmap & bit) == 0) {
+                change.added = true;
+                Object[] newSlots = new Object[slots.length + 1];
+                System.arraycopy(slots, 0, newSlots, 0, index);
+                newSlots[index] = new Entry(hash, key, value);
+                System.arraycopy(slots, index, newSlots, index + 1, slots.length - index);
+                if (isEditable(edit)) {
+                    bitmap |= bit;
+                    slots = newSlots;
+                    return this;
+                }
+                return new BitmapNode(edit, bitmap | bit, newSlots);
+            }
+
+            Object slot = slots[index];
+            Object newSlot;
+            if (slot instanceof Node) {
+                newSlot = ((Node) slot).put(edit, shift + BITS, hash, key, value, change);
+            } else {
+                Entry entry = (Entry) slot;
+                if (entry.hash == hash && equal(entry.key, key)) {
+                    if (entry.value == value) {
+                        return this;
+                    }
+                    change.oldValue = entry.value;
+                    newSlot = new Entry(hash, key, value);
+                } else {
+                    change.added = true;
+                    Entry added = new Entry(hash, key, value);
+                    newSlot = entry.hash == hash
+                            ? new CollisionNode(edit, hash, new Entry[] {entry, added})
+                            : pair(edit, shift + BITS, entry, entry.hash, added, hash);
+                }
+            }
+            return newSlot == slot ? this : withSlot(edit, index, newSlot);
+        }
+
+        public Node remove(Object edit, int shift, int hash, Object key, Change change) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int index = index(bit);
+            Object slot = slots[index];
+            if (slot instanceof Node) {
+                Node child = (Node) slot;
+                Node newChild = child.remove(edit, shift + BITS, hash, key, change);
+                if (!change.removed) {
+                    return this;
+                }
+                if (newChild == null) {
+                    return withoutSlot(edit, bit, index);
+                }
+                // Pull a lone entry up into this node so the trie doesn't keep a chain of one-slot nodes
+                Entry single = newChild.singleEntry();
+                if (single != null) {
+                    return withSlot(edit, index, single);
+                }
+                return newChild == child ? this : withSlot(edit, index, newChild);
+            }
+            Entry entry = (Entry) slot;
+            if (entry.hash != hash || !equal(entry.key, key)) {
+                return this;
+            }
+            change.removed = true;
+            change.oldValue = entry.value;
+            return withoutSlot(edit, bit, index);
+        }
+
+        public Entry singleEntry() {
+            return slots.length == 1 && slots[0] instanceof Entry ? (Entry) slots[0] : null;
+        }
+
+        private Node withSlot(Object edit, int index, Object slot) {
+            if (isEditable(edit)) {
+                slots[index] = slot;
+                return this;
+            }
+            Object[] newSlots = slots.clone();
+            newSlots[index] = slot;
+            return new BitmapNode(edit, bitmap, newSlots);
+        }
+
+        private Node withoutSlot(Object edit, int bit, int index) {
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] newSlots = new Object[slots.length - 1];
+            System.arraycopy(slots, 0, newSlots, 0, index);
+            System.arraycopy(slots, index + 1, newSlots, index, slots.length - index - 1);
+            if (isEditable(edit)) {
+                bitmap ^= bit;
+                slots = newSlots;
+                return this;
+            }
+            return new BitmapNode(edit, bitmap ^ bit, newSlots);
+        }
+    }
+
+    /**
+     * Holds entries whose hashes are all exactly the same
+     */
+    private static class CollisionNode extends Node {
+        private final int hash;
+        private Entry[] entries;
+
+        public CollisionNode(Object edit, int hash, Entry[] entries) {
+            super(edit);
+            this.hash = hash;
+            this.entries = entries;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < entries.length; i++) {
+                if (equal(entries[i].key, key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        public Object find(int shift, int hash, Object key) {
+            if (hash != this.hash) {
+                return NOT_FOUND;
+            }
+            int index = indexOf(key);
+            return index < 0 ? NOT_FOUND : entries[index].value;
+        }
+
+        public Node put(Object edit, int shift, int hash, Object key, Object value, Change change) {
+            if (hash != this.hash) {
+                change.added = true;
+                return BitmapNode.pair(edit, shift, this, this.hash, new Entry(hash, key, value), hash);
+            }
+            int index = indexOf(key);
+            Entry[] newEntries;
+            if (index >= 0) {
+                if (entries[index].value == value) {
+                    return this;
+                }
+                change.oldValue = entries[index].value;
+                newEntries = isEditable(edit) ? entries : entries.clone();
+                newEntries[index] = new Entry(hash, key, value);
+            } else {
+                change.added = true;
+                newEntries = new Entry[entries.length + 1];
+                System.arraycopy(entries, 0, newEntries, 0, entries.length);
+                newEntries[entries.length] = new Entry(hash, key, value);
+            }
+            if (isEditable(edit)) {
+                entries = newEntries;
+                return this;
+            }
+            return new CollisionNode(edit, hash, newEntries);
+        }
+
+        public Node remove(Object edit, int shift, int hash, Object key, Change change) {
+            int index = hash == this.hash ? indexOf(key) : -1;
+            if (index < 0) {
+                return this;
+            }
+            change.removed = true;
+            change.oldValue = entries[index].value;
+            if (entries.length == 1) {
+                return null;
+            }
+            Entry[] newEntries = new Entry[entries.length - 1];
+            System.arraycopy(entries, 0, newEntries, 0, index);
+            System.arraycopy(entries, index + 1, newEntries, index, entries.length - index - 1);
+            if (isEditable(edit)) {
+                entries = newEntries;
+                return this;
+            }
+            return new CollisionNode(edit, hash, newEntries);
+        }
+
+        public Entry singleEntry() {
+            return entries.length == 1 ? entries[0] : null;
+        }
+    }
+
+    private static class TrieIterator<K, V> implements Iterator<KVPair<K, V>> {
+        // A stack of the slot arrays being walked and the next index in each
+        private final Object[][] stack;
+        private final int[] positions;
+        private int depth;
+        private Entry nextEntry;
+
+        public TrieIterator(Node root) {
+            this.stack = new Object[MAX_DEPTH][];
+            this.positions = new int[MAX_DEPTH];
+            this.depth = 0;
+            push(root);
+            this.nextEntry = null;
+        }
+
+        private void push(Node node) {
+            stack[depth] = node instanceof BitmapNode ? ((BitmapNode) node).slots : ((CollisionNode) node).entries;
+            positions[depth] = 0;
+            depth++;
+        }
+
+        /**
+         * Returns true if there is another pair, false otherwise
+         */
+        public boolean hasNext() {
+            while (nextEntry == null && depth > 0) {
+                Object[] slots = stack[depth - 1];
+                if (positions[depth - 1] == slots.length) {
+                    depth--;
+                    continue;
+                }
+                Object slot = slots[positions[depth - 1]++];
+                if (slot instanceof Node) {
+                    push((Node) slot);
+                } else {
+                    nextEntry = (Entry) slot;
+                }
+            }
+            return nextEntry != null;
+        }
+
+        /**
+         * Returns the next KVPair, throws a NoSuchElementException if there isn't one
+         */
+        @SuppressWarnings("unchecked")
+        public KVPair<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            KVPair<K, V> pair = new KVPair<>((K) nextEntry.key, (V) nextEntry.value);
+            nextEntry = null;
+            return pair;
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package datastructures.concrete.dictionaries;
+
+import datastructures.concrete.KVPair;
+import datastructures.interfaces.ICursor;
+import datastructures.interfaces.IDictionary;
+import misc.exceptions.NoSuchKeyException;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+/**
+ * An open-addressing hash dictionary that uses Robin Hood displacement.
+ *
+ * Keys and values live in flat parallel arrays, so a lookup walks a run of
+ * adjacent slots instead of chasing a pointer to a per-bucket dictionary.
+ * On insert, an entry that has probed further from its home slot than the
+ * resident entry takes that slot, which keeps probe lengths short and even.
+ * Removal uses backward-shift deletion, so no tombstones are ever left behind.
+ *
+ * See IDictionary for more details on what each method should do.
+ */
+public class RobinHoodHashDictionary<K, V> implements IDictionary<K, V> {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final double LOAD_FACTOR = 0.8;
+
+    // Invariants:
+    //  - keys.length == values.length == distances.length, and is a power of two
+    //  - distances[i] == 0 if slot i is empty, otherwise it is the number of
+    //    slots between the entry and its home slot, plus one
+    //  - for every occupied slot, each slot from its home up to it is occupied
+    private K[] keys;
+    private V[] values;
+    private int[] distances;
+    private int size;
+
+    public RobinHoodHashDictionary() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates an empty dictionary whose table can hold at least the given
+     * number of entries before it has to grow.
+     */
+    public RobinHoodHashDictionary(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must be non-negative");
+        }
+        int capacity = INITIAL_CAPACITY;
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity *= 2;
+        }
+        allocate(capacity);
+        size = 0;
+    }
+
+    /**
+     * Replaces the backing arrays with new, empty arrays of the given capacity.
+     */
+    @SuppressWarnings("unchecked")
+    private void allocate(int capacity) {
+        keys = (K[]) new Object[capacity];
+        values = (V[]) new Object[capacity];
+        distances = new int[capacity];
+    }
+
+    /**
+     * Returns the home slot for the given key. The high bits of the hash code
+     * are folded into the low ones since only the low bits survive the mask.
+     */
+    private int homeSlot(K key) {
+        if (key == null) {
+            return 0;
+        }
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return hash & (keys.length - 1);
+    }
+
+    /**
+     * Returns the slot holding the given key, or -1 if the key is absent.
+     */
+    private int findSlot(K key) {
+        int mask = keys.length - 1;
+        int slot = homeSlot(key);
+        for (int distance = 1; distance <= distances[slot]; distance++) {
+            K other = keys[slot];
+            if (key == other || (key != null && key.equals(other))) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        // Either we hit an empty slot or an entry that is closer to its home
+        // than we would be: Robin Hood ordering means the key can't be further on.
+        return -1;
+    }
+
+    /**
+     * Inserts a key that is known to be absent, displacing richer entries along the way.
+     */
+    private void insertAbsent(K key, V value) {
+        int mask = keys.length - 1;
+        int slot = homeSlot(key);
+        int distance = 1;
+        while (distances[slot] != 0) {
+            if (distances[slot] < distance) {
+                K tempKey = keys[slot];
+                V tempValue = values[slot];
+                int tempDistance = distances[slot];
+                keys[slot] = key;
+                values[slot] = value;
+                distances[slot] = distance;
+                key = tempKey;
+                value = tempValue;
+                distance = tempDistance;
+            }
+            slot = (slot + 1) & mask;
+            distance++;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        distances[slot] = distance;
+    }
+
+    /**
+     * Doubles the table and reinserts every entry
+     */
+    private void resize() {
+        K[] oldKeys = keys;
+        V[] oldValues = values;
+        int[] oldDistances = distances;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldDistances[i] != 0) {
+                insertAbsent(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the value for the given key. Throws a NoSuchKeyException if the
+     * key doesn't exist in the dictionary
+     */
+    @Override
+    public V get(K key) {
+        int slot = findSlot(key);
+        if (slot < 0) {
+            throw new NoSuchKeyException();
+        }
+        return values[slot];
+    }
+
+    @Override
+    public V getOrDefault(K key, V defaultValue) {
+        int slot = findSlot(key);
+        return slot < 0 ? defaultValue : values[slot];
+    }
+
+    /**
+     * Puts the given key and value into the dictionary, replacing the old
+     * value if the key already exists
+     */
+    @Override
+    public void put(K key, V value) {
+        int slot = findSlot(key);
+        if (slot >= 0) {
+            values[slot] = value;
+            return;
+        }
+        if (size + 1 > keys.length * LOAD_FACTOR) {
+            resize();
+        }
+        insertAbsent(key, value);
+        size++;
+    }
+
+    /**
+     * Removes the given key and returns its value. Throws a NoSuchKeyException
+     * if the key doesn't exist in the dictionary
+     */
+    @Override
+    public V remove(K key) {
+        int slot = findSlot(key);
+        if (slot < 0) {
+            throw new NoSuchKeyException();
+        }
+        V value = values[slot];
+
+        // Backward-shift: pull every displaced successor one slot closer to home
+        int mask = keys.length - 1;
+        int next = (slot + 1) & mask;
+        while (distances[next] > 1) {
+            keys[slot] = keys[next];
+            values[slot] = values[next];
+            distances[slot] = distances[next] - 1;
+            slot = next;
+            next = (next + 1) & mask;
+        }
+        keys[slot] = null;
+        values[slot] = null;
+        distances[slot] = 0;
+        size--;
+        return value;
+    }
+
+    /**
+     * Returns true if the dictionary contains the key, false otherwise
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return findSlot(key) >= 0;
+    }
+
+    /**
+     * Returns the number of key-value pairs in the dictionary
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Calls the action on each pair in a plain loop over the slots
+     */
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (distances[i] != 0) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns a cursor that reads the slot arrays directly
+     */
+    @Override
+    public ICursor<K, V> cursor() {
+        return new RobinHoodCursor();
+    }
+
+    private class RobinHoodCursor implements ICursor<K, V> {
+        private int slot = -1;
+
+        public boolean advance() {
+            do {
+                slot++;
+            } while (slot < distances.length && distances[slot] == 0);
+            if (slot >= distances.length) {
+                slot = distances.length;
+                return false;
+            }
+            return true;
+        }
+
+        public K key() {
+            return keys[slot];
+        }
+
+        public V value() {
+            return values[slot];
+        }
+
+        public void reset() {
+            slot = -1;
+        }
+    }
+
+    /**
+     * Returns the iterator for RobinHoodHashDictionary
+     */
+    @Override
+    public Iterator<KVPair<K, V>> iterator() {
+        return new RobinHoodIterator<>(keys, values, distances);
+    }
+
+    private static class RobinHoodIterator<K, V> implements Iterator<KVPair<K, V>> {
+        private K[] keys;
+        private V[] values;
+        private int[] distances;
+        private int index;
+
+        public RobinHoodIterator(K[] keys, V[] values, int[] distances) {
+            this.keys = keys;
+            this.values = values;
+            this.distances = distances;
+            this.index = 0;
+        }
+
+        /**
+         * Returns true if there is another occupied slot, false otherwise
+         */
+        public boolean hasNext() {
+            while (index < distances.length && distances[index] == 0) {
+                index++;
+            }
+            return index < distances.length;
+        }
+
+        /**
+         * Returns the next KVPair, throws a NoSuchElementException if there isn't one
+         */
+        public KVPair<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            index++;
+            return new KVPair<>(keys[index - 1], values[index - 1]);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package datastructures.concrete.dictionaries;
+
+import java.security.SecureRandom;
+import java.util.Objects;
+
+/**
+ * A HashStrategy for keys that may come from an attacker, such as strings
+ * in a request.
+ *
+ * Strings are hashed by their characters with SipHash-2-4, a keyed hash,
+ * using a secret 128-bit seed picked at random for each instance. Without
+ * the seed nobody can tell which strings will collide, so colliding keys
+ * can't be prepared ahead of time the way they can for String.hashCode().
+ * Other keys are hashed by feeding their own hashCode() through SipHash,
+ * which spreads them but can't separate keys whose hashCode() already ties.
+ * Keys are compared with their own equals().
+ *
+ * A hash dictionary that sees a suspiciously long chain can call reseed()
+ * and rebuild itself with a fresh seed.
+ */
+public class SipHashStrategy<K> implements HashStrategy<K> {
+    private static final SecureRandom SEEDS = new SecureRandom();
+
+    private final long k0;
+    private final long k1;
+
+    /**
+     * Creates a strategy with a random seed
+     */
+    public SipHashStrategy() {
+        this(SEEDS.nextLong(), SEEDS.nextLong());
+    }
+
+    /**
+     * Creates a strategy with the given seed. Only use a fixed seed for
+     * testing, since anyone who knows it can produce collisions.
+     */
+    public SipHashStrategy(long k0, long k1) {
+        this.k0 = k0;
+        this.k1 = k1;
+    }
+
+    @Override
+    public int hash(K key) {
+        if (key == null) {
+            return 0;
+        }
+        long hash = key instanceof String ? sipHash((String) key, 0) : sipHash(null, key.hashCode());
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    @Override
+    public boolean equals(K a, K b) {
+        return Objects.equals(a, b);
+    }
+
+    @Override
+    public boolean hasNaturalEquality() {
+        return true;
+    }
+
+    /**
+     * Returns a strategy with a new random seed
+     */
+    @Override
+    public HashStrategy<K> reseed() {
+        return new SipHashStrategy<>();
+    }
+
+    /**
+     * Returns the SipHash-2-4 of the string's UTF-16 code units, or, if the
+     * string is null, of the given int
+     */
+    private long sipHash(String s, int value) {
+        int length = s == null ? 2 : s.length();
+        long v0 = k0 ^ 0x736F6D6570736575L;
+        long v1 = k1 ^ 0x646F72616E646F6DL;
+        long v2 = k0 ^ 0x6C7967656E657261L;
+        long v3 = k1 ^ 0x7465646279746573L;
+
+        // Four chars make a message word. The last word holds the leftover
+        // chars and the message length in bytes, and is followed by the
+        // finalization step.
+        int words = length / 4 + 1;
+        for (int w = 0; w <= words; w++) {
+            boolean finalization = w == words;
+            long m = 0;
+            if (finalization) {
+                v2 ^= 0xFF;
+            } else {
+                int end = Math.min(length, 4 * w + 4);
+                for (int i = 4 * w; i < end; i++) {
+                    long c = s == null ? (value >>> (16 * i)) & 0xFFFF : s.charAt(i);
+                    m |= c << (16 * (i - 4 * w));
+                }
+                if (w == words - 1) {
+                    m |= (long) (2 * length) << 56;
+                }
+                v3 ^= m;
+            }
+            for (int round = 0, rounds = finalization ? 4 : 2; round < rounds; round++) {
+                v0 += v1;
+                v1 = Long.rotateLeft(v1, 13);
+                v1 ^= v0;
+                v0 = Long.rotateLeft(v0, 32);
+                v2 += v3;
+                v3 = Long.rotateLeft(v3, 16);
+                v3 ^= v2;
+                v0 += v3;
+                v3 = Long.rotateLeft(v3, 21);
+                v3 ^= v0;
+                v2 += v1;
+                v1 = Long.rotateLeft(v1, 17);
+                v1 ^= v2;
+                v2 = Long.rotateLeft(v2, 32);
+            }
+            if (!finalization) {
+                v0 ^= m;
+            }
+        }
+        return v0 ^ v1 ^ v2 ^ v3;
+    }
+}
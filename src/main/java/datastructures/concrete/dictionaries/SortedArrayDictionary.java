@@ -0,0 +1,293 @@
+package datastructures.concrete.dictionaries;
+
+import datastructures.concrete.KVPair;
+import datastructures.interfaces.IDictionary;
+import misc.exceptions.EmptyContainerException;
+import misc.exceptions.NoSuchKeyException;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+/**
+ * A dictionary that keeps its keys in one sorted array, with the values in a
+ * parallel array, and finds them by binary search.
+ *
+ * Lookups are O(log n) with no hashing and no pointers to chase, which suits
+ * tables that are built once and then read many times. put() and remove()
+ * shift the arrays and so are O(n); to fill a table from scratch, use
+ * build(), which sorts all the pairs once instead of inserting them one by one.
+ * Iteration is in ascending key order.
+ *
+ * Null keys are not supported, since floorKey and ceilingKey use null to mean
+ * that there is no such key.
+ *
+ * See IDictionary for more details on what each method should do.
+ */
+public class SortedArrayDictionary<K extends Comparable<K>, V> implements IDictionary<K, V> {
+    private static final int DEFAULT_CAPACITY = 10;
+
+    // Invariants:
+    //  - keys[0 .. size) is strictly increasing and values[i] belongs to keys[i]
+    //  - every index at or past size is null in keys and values
+    private K[] keys;
+    private V[] values;
+    private int size;
+
+    public SortedArrayDictionary() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    @SuppressWarnings("unchecked")
+    private SortedArrayDictionary(int capacity) {
+        this.keys = (K[]) new Comparable[capacity];
+        this.values = (V[]) new Object[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * Returns a dictionary holding the given pairs, sorting them once. If a key
+     * appears more than once, the last of its pairs wins, as if they had been
+     * put() in order.
+     */
+    public static <K extends Comparable<K>, V> SortedArrayDictionary<K, V> build(Iterable<KVPair<K, V>> pairs) {
+        int count = 0;
+        for (KVPair<K, V> pair : pairs) {
+            checkKey(pair.getKey());
+            count++;
+        }
+        @SuppressWarnings("unchecked")
+        KVPair<K, V>[] sorted = (KVPair<K, V>[]) new KVPair[count];
+        int i = 0;
+        for (KVPair<K, V> pair : pairs) {
+            sorted[i++] = pair;
+        }
+        // The sort is stable, so pairs with equal keys keep their order
+        Arrays.sort(sorted, (a, b) -> a.getKey().compareTo(b.getKey()));
+
+        SortedArrayDictionary<K, V> dict = new SortedArrayDictionary<>(Math.max(count, 1));
+        for (KVPair<K, V> pair : sorted) {
+            if (dict.size > 0 && dict.keys[dict.size - 1].compareTo(pair.getKey()) == 0) {
+                dict.values[dict.size - 1] = pair.getValue();
+            } else {
+                dict.keys[dict.size] = pair.getKey();
+                dict.values[dict.size] = pair.getValue();
+                dict.size++;
+            }
+        }
+        return dict;
+    }
+
+    private static <K> void checkKey(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("SortedArrayDictionary does not support null keys");
+        }
+    }
+
+    /**
+     * Returns the index of the key if present; otherwise (-(insertion point) - 1),
+     * like Arrays.binarySearch
+     */
+    private int search(K key) {
+        if (size == 0) {
+            return -1;
+        }
+        // Halve the range on every step without an early exit, so the only
+        // data-dependent choice is which half to keep, a conditional move
+        int base = 0;
+        int n = size;
+        while (n > 1) {
+            int half = n >>> 1;
+            base = keys[base + half].compareTo(key) <= 0 ? base + half : base;
+            n -= half;
+        }
+        int cmp = keys[base].compareTo(key);
+        if (cmp == 0) {
+            return base;
+        }
+        return -(cmp < 0 ? base + 1 : base) - 1;
+    }
+
+    /**
+     * Returns the value for the given key. Throws a NoSuchKeyException if the
+     * key doesn't exist in the dictionary
+     */
+    @Override
+    public V get(K key) {
+        checkKey(key);
+        int index = search(key);
+        if (index < 0) {
+            throw new NoSuchKeyException();
+        }
+        return values[index];
+    }
+
+    @Override
+    public V getOrDefault(K key, V defaultValue) {
+        checkKey(key);
+        int index = search(key);
+        return index < 0 ? defaultValue : values[index];
+    }
+
+    /**
+     * Puts the given key and value into the dictionary, replacing the old
+     * value if the key already exists. Adding a new key shifts every larger key.
+     */
+    @Override
+    public void put(K key, V value) {
+        checkKey(key);
+        int index = search(key);
+        if (index >= 0) {
+            values[index] = value;
+            return;
+        }
+        int insertionPoint = -index - 1;
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, keys.length * 2);
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        System.arraycopy(keys, insertionPoint, keys, insertionPoint + 1, size - insertionPoint);
+        System.arraycopy(values, insertionPoint, values, insertionPoint + 1, size - insertionPoint);
+        keys[insertionPoint] = key;
+        values[insertionPoint] = value;
+        size++;
+    }
+
+    /**
+     * Removes the given key and returns its value. Throws a NoSuchKeyException
+     * if the key doesn't exist in the dictionary
+     */
+    @Override
+    public V remove(K key) {
+        checkKey(key);
+        int index = search(key);
+        if (index < 0) {
+            throw new NoSuchKeyException();
+        }
+        V value = values[index];
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        keys[size] = null;
+        values[size] = null;
+        return value;
+    }
+
+    /**
+     * Returns true if the dictionary contains the key, false otherwise
+     */
+    @Override
+    public boolean containsKey(K key) {
+        checkKey(key);
+        return search(key) >= 0;
+    }
+
+    /**
+     * Returns the number of key-value pairs in the dictionary
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the smallest key in the dictionary.
+     *
+     * @throws EmptyContainerException if the dictionary is empty.
+     */
+    public K firstKey() {
+        if (size == 0) {
+            throw new EmptyContainerException();
+        }
+        return keys[0];
+    }
+
+    /**
+     * Returns the largest key in the dictionary.
+     *
+     * @throws EmptyContainerException if the dictionary is empty.
+     */
+    public K lastKey() {
+        if (size == 0) {
+            throw new EmptyContainerException();
+        }
+        return keys[size - 1];
+    }
+
+    /**
+     * Returns the largest key less than or equal to the given key, or null if there is none.
+     */
+    public K floorKey(K key) {
+        checkKey(key);
+        int index = search(key);
+        if (index >= 0) {
+            return keys[index];
+        }
+        int insertionPoint = -index - 1;
+        return insertionPoint > 0 ? keys[insertionPoint - 1] : null;
+    }
+
+    /**
+     * Returns the smallest key greater than or equal to the given key, or null if there is none.
+     */
+    public K ceilingKey(K key) {
+        checkKey(key);
+        int index = search(key);
+        if (index >= 0) {
+            return keys[index];
+        }
+        int insertionPoint = -index - 1;
+        return insertionPoint < size ? keys[insertionPoint] : null;
+    }
+
+    /**
+     * Calls the action on each pair in ascending key order
+     */
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(keys[i], values[i]);
+        }
+    }
+
+    /**
+     * Returns an iterator over the pairs in ascending key order
+     */
+    @Override
+    public Iterator<KVPair<K, V>> iterator() {
+        return new SortedArrayIterator<>(keys, values, size);
+    }
+
+    private static class SortedArrayIterator<K, V> implements Iterator<KVPair<K, V>> {
+        private final K[] keys;
+        private final V[] values;
+        private final int size;
+        private int index;
+
+        public SortedArrayIterator(K[] keys, V[] values, int size) {
+            this.keys = keys;
+            this.values = values;
+            this.size = size;
+            this.index = 0;
+        }
+
+        /**
+         * Returns true if there is another pair, false otherwise
+         */
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        /**
+         * Returns the next KVPair, throws a NoSuchElementException if there isn't one
+         */
+        public KVPair<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            index++;
+            return new KVPair<>(keys[index - 1], values[index - 1]);
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package datastructures.concrete.dictionaries;
+
+import datastructures.concrete.KVPair;
+import datastructures.interfaces.IDictionary;
+import misc.exceptions.NoSuchKeyException;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+/**
+ * An open-addressing hash dictionary laid out like a "Swiss table".
+ *
+ * Slots come in groups of eight, and each slot has a control byte: EMPTY,
+ * DELETED, or, for a full slot, the low seven bits of its key's hash. The eight
+ * control bytes of a group are packed into one long, so a single word
+ * comparison (SWAR, "SIMD within a register") finds every slot in the group
+ * whose hash bits match the key being looked up. equals() is only called on
+ * those slots, and with seven bits of hash a wrong match happens about once
+ * in 128 tries, so a hit usually costs one equals() call and a miss none.
+ * A lookup stops at the first group with an EMPTY slot.
+ *
+ * Removal leaves a DELETED marker only if the group has no EMPTY slot, since
+ * otherwise no lookup could have probed past it. The table is rebuilt once
+ * full and deleted slots take up more than 7/8 of it.
+ *
+ * See IDictionary for more details on what each method should do.
+ */
+public class SwissTableDictionary<K, V> implements IDictionary<K, V> {
+    private static final int GROUP_SIZE = 8;
+    private static final int INITIAL_GROUPS = 2;
+
+    private static final long EMPTY = 0x80;
+    private static final long DELETED = 0xFE;
+    private static final long LSBS = 0x0101010101010101L;
+    private static final long MSBS = 0x8080808080808080L;
+    // Stands in for the null key
+    private static final Object NULL_KEY = new Object();
+
+    // Invariants:
+    //  - keys.length == values.length == control.length * GROUP_SIZE, and control.length is a power of two
+    //  - byte j of control[g] describes slot g * GROUP_SIZE + j
+    //  - size + deleted <= keys.length * 7 / 8, so every probe sequence reaches an EMPTY slot
+    private long[] control;
+    private Object[] keys;
+    private Object[] values;
+    private int size;
+    private int deleted;
+
+    public SwissTableDictionary() {
+        allocate(INITIAL_GROUPS);
+        this.size = 0;
+    }
+
+    private void allocate(int numGroups) {
+        control = new long[numGroups];
+        for (int g = 0; g < numGroups; g++) {
+            control[g] = EMPTY * LSBS;
+        }
+        keys = new Object[numGroups * GROUP_SIZE];
+        values = new Object[numGroups * GROUP_SIZE];
+        deleted = 0;
+    }
+
+    private static Object mask(Object key) {
+        return key == null ? NULL_KEY : key;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> K unmask(Object key) {
+        return key == NULL_KEY ? null : (K) key;
+    }
+
+    private static int hash(Object key) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 15);
+    }
+
+    /**
+     * Returns a word with the high bit set in every byte of the group equal to the given byte.
+     * A byte just above a true match may also be flagged, which the equals() check filters out.
+     */
+    private static long match(long group, long h2) {
+        long x = group ^ (h2 * LSBS);
+        return (x - LSBS) & ~x & MSBS;
+    }
+
+    /**
+     * Returns a word with the high bit set in every EMPTY byte of the group
+     */
+    private static long matchEmpty(long group) {
+        // EMPTY is the only control byte with bit 7 set and bit 1 clear
+        return group & ~(group << 6) & MSBS;
+    }
+
+    /**
+     * Returns a word with the high bit set in every EMPTY or DELETED byte of the group
+     */
+    private static long matchEmptyOrDeleted(long group) {
+        // EMPTY and DELETED are the only control bytes with bit 7 set and bit 0 clear
+        return group & ~(group << 7) & MSBS;
+    }
+
+    private static int firstByte(long matches) {
+        return Long.numberOfTrailingZeros(matches) >>> 3;
+    }
+
+    private long controlByte(int slot) {
+        return (control[slot / GROUP_SIZE] >>> ((slot % GROUP_SIZE) * 8)) & 0xFF;
+    }
+
+    private void setControlByte(int slot, long value) {
+        int shift = (slot % GROUP_SIZE) * 8;
+        int group = slot / GROUP_SIZE;
+        control[group] = (control[group] & ~(0xFFL << shift)) | (value << shift);
+    }
+
+    /**
+     * Returns the slot holding the key, or -1 if it is absent
+     */
+    private int find(Object key) {
+        int hash = hash(key);
+        long h2 = hash & 0x7F;
+        int groupMask = control.length - 1;
+        int group = (hash >>> 7) & groupMask;
+        for (int step = 1; ; step++) {
+            long word = control[group];
+            for (long matches = match(word, h2); matches != 0; matches &= matches - 1) {
+                int slot = group * GROUP_SIZE + firstByte(matches);
+                if (key.equals(keys[slot])) {
+                    return slot;
+                }
+            }
+            if (matchEmpty(word) != 0) {
+                return -1;
+            }
+            // Triangular probing visits every group when the group count is a power of two
+            group = (group + step) & groupMask;
+        }
+    }
+
+    /**
+     * Returns the first EMPTY or DELETED slot on the key's probe sequence
+     */
+    private int findInsertSlot(int hash) {
+        int groupMask = control.length - 1;
+        int group = (hash >>> 7) & groupMask;
+        for (int step = 1; ; step++) {
+            long matches = matchEmptyOrDeleted(control[group]);
+            if (matches != 0) {
+                return group * GROUP_SIZE + firstByte(matches);
+            }
+            group = (group + step) & groupMask;
+        }
+    }
+
+    /**
+     * Returns the value for the given key. Throws a NoSuchKeyException if the
+     * key doesn't exist in the dictionary
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        int slot = find(mask(key));
+        if (slot < 0) {
+            throw new NoSuchKeyException();
+        }
+        return (V) values[slot];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(K key, V defaultValue) {
+        int slot = find(mask(key));
+        return slot < 0 ? defaultValue : (V) values[slot];
+    }
+
+    /**
+     * Puts the given key and value into the dictionary, replacing the old
+     * value if the key already exists
+     */
+    @Override
+    public void put(K key, V value) {
+        Object masked = mask(key);
+        int slot = find(masked);
+        if (slot >= 0) {
+            values[slot] = value;
+            return;
+        }
+        if (size + deleted + 1 > keys.length / 8 * 7) {
+            rehash();
+        }
+        insertAbsent(masked, value);
+        size++;
+    }
+
+    private void insertAbsent(Object key, Object value) {
+        int hash = hash(key);
+        int slot = findInsertSlot(hash);
+        if (controlByte(slot) == DELETED) {
+            deleted--;
+        }
+        setControlByte(slot, hash & 0x7F);
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    /**
+     * Rebuilds the table without DELETED slots, doubling it unless it is at
+     * most half full once they are gone
+     */
+    private void rehash() {
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        long[] oldControl = control;
+        int numGroups = control.length;
+        if (size + 1 > keys.length / 2) {
+            numGroups *= 2;
+        }
+        allocate(numGroups);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (((oldControl[slot / GROUP_SIZE] >>> ((slot % GROUP_SIZE) * 8)) & 0x80) == 0) {
+                insertAbsent(oldKeys[slot], oldValues[slot]);
+            }
+        }
+    }
+
+    /**
+     * Removes the given key and returns its value. Throws a NoSuchKeyException
+     * if the key doesn't exist in the dictionary
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(K key) {
+        int slot = find(mask(key));
+        if (slot < 0) {
+            throw new NoSuchKeyException();
+        }
+        V value = (V) values[slot];
+        if (matchEmpty(control[slot / GROUP_SIZE]) != 0) {
+            // The group already stops every lookup, so the slot can simply be emptied
+            setControlByte(slot, EMPTY);
+        } else {
+            setControlByte(slot, DELETED);
+            deleted++;
+        }
+        keys[slot] = null;
+        values[slot] = null;
+        size--;
+        return value;
+    }
+
+    /**
+     * Returns true if the dictionary contains the key, false otherwise
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return find(mask(key)) >= 0;
+    }
+
+    /**
+     * Returns the number of key-value pairs in the dictionary
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Calls the action on each pair in a plain loop over the slots
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if ((controlByte(slot) & 0x80) == 0) {
+                action.accept(unmask(keys[slot]), (V) values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Returns the iterator for SwissTableDictionary
+     */
+    @Override
+    public Iterator<KVPair<K, V>> iterator() {
+        return new SwissIterator<>(control, keys, values);
+    }
+
+    private static class SwissIterator<K, V> implements Iterator<KVPair<K, V>> {
+        private final long[] control;
+        private final Object[] keys;
+        private final Object[] values;
+        // The group being walked and the full slots in it that haven't been returned yet
+        private int group;
+        private long remaining;
+
+        public SwissIterator(long[] control, Object[] keys, Object[] values) {
+            this.control = control;
+            this.keys = keys;
+            this.values = values;
+            this.group = 0;
+            this.remaining = control.length > 0 ? ~control[0] & MSBS : 0;
+        }
+
+        /**
+         * Returns true if there is another full slot, false otherwise
+         */
+        public boolean hasNext() {
+            while (remaining == 0 && group + 1 < control.length) {
+                group++;
+                // Full slots are the ones whose control byte has the high bit clear
+                remaining = ~control[group] & MSBS;
+            }
+            return remaining != 0;
+        }
+
+        /**
+         * Returns the next KVPair, throws a NoSuchElementException if there isn't one
+         */
+        @SuppressWarnings("unchecked")
+        public KVPair<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int slot = group * GROUP_SIZE + firstByte(remaining);
+            remaining &= remaining - 1;
+            return new KVPair<>(unmask(keys[slot]), (V) values[slot]);
+        }
+    }
+}
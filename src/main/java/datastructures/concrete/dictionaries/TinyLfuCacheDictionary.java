@@ -0,0 +1,394 @@
+package datastructures.concrete.dictionaries;
+
+import datastructures.concrete.KVPair;
+import datastructures.interfaces.IDictionary;
+import misc.exceptions.NoSuchKeyException;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * A bounded cache that uses the W-TinyLFU policy, which keeps far more of the
+ * hot set than plain LRU when the traffic includes scans or one-hit wonders.
+ *
+ * New entries go into a small LRU window (1% of the cache). An entry pushed
+ * out of the window becomes a candidate for the main region, which is a
+ * segmented LRU: a probation segment and a protected segment (80% of the main
+ * region) for entries that were used again while on probation. Once the main
+ * region is full, the candidate only gets in if a FrequencySketch says it has
+ * been used more often than the entry at the front of probation, which is
+ * evicted in its place; otherwise the candidate itself is evicted.
+ *
+ * get, getOrDefault, computeIfAbsent and put count as uses of a key;
+ * containsKey and iteration do not. Lookups through get, getOrDefault and
+ * computeIfAbsent are counted as hits or misses.
+ *
+ * See IDictionary for more details on what each method should do.
+ */
+public class TinyLfuCacheDictionary<K, V> implements IDictionary<K, V> {
+    private static final double WINDOW_FRACTION = 0.01;
+    private static final double PROTECTED_FRACTION = 0.8;
+
+    private final int maximumSize;
+    private final int maximumWindowSize;
+    private final int maximumMainSize;
+    private final int maximumProtectedSize;
+    private final IDictionary<K, Node<K, V>> index;
+    private final FrequencySketch<K> sketch;
+
+    private final AccessQueue<K, V> window;
+    private final AccessQueue<K, V> probation;
+    private final AccessQueue<K, V> protectedSegment;
+    // Bumped whenever a queue is reordered, so iterators can detect it
+    private int modCount;
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Creates an empty cache that holds at most the given number of entries.
+     */
+    public TinyLfuCacheDictionary(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive");
+        }
+        this.maximumSize = maximumSize;
+        this.maximumWindowSize = Math.max(1, (int) (maximumSize * WINDOW_FRACTION));
+        this.maximumMainSize = maximumSize - maximumWindowSize;
+        this.maximumProtectedSize = (int) (maximumMainSize * PROTECTED_FRACTION);
+        this.index = new ChainedHashDictionary<>();
+        // The sketch grows along with the cache instead of being sized for the maximum up front
+        this.sketch = new FrequencySketch<>(0);
+        this.window = new AccessQueue<>();
+        this.probation = new AccessQueue<>();
+        this.protectedSegment = new AccessQueue<>();
+        this.modCount = 0;
+    }
+
+    /**
+     * Returns the maximum number of entries this cache holds.
+     */
+    public int maximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Returns the number of lookups that found their key.
+     */
+    public long hitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of lookups that did not find their key.
+     */
+    public long missCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of entries evicted to make room for new ones.
+     */
+    public long evictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns the fraction of lookups that were hits, or 0 if there have been none.
+     */
+    public double hitRate() {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 0.0 : (double) hitCount / lookups;
+    }
+
+    /**
+     * Resets the hit, miss and eviction counts to zero.
+     */
+    public void resetStats() {
+        hitCount = 0;
+        missCount = 0;
+        evictionCount = 0;
+    }
+
+    /**
+     * Looks up the node for the given key, counting the lookup as a hit or miss
+     * and recording a use of the key. Returns null if the key is absent.
+     */
+    private Node<K, V> access(K key) {
+        Node<K, V> node = index.getOrDefault(key, null);
+        if (node == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        onUse(node);
+        return node;
+    }
+
+    /**
+     * Records a use of a cached entry: bumps its frequency and moves it within
+     * its region, promoting it to the protected segment if it was on probation.
+     */
+    private void onUse(Node<K, V> node) {
+        sketch.increment(node.key);
+        if (node.queue == probation) {
+            probation.unlink(node);
+            protectedSegment.linkAtBack(node);
+            if (protectedSegment.size > maximumProtectedSize) {
+                Node<K, V> demoted = protectedSegment.front;
+                protectedSegment.unlink(demoted);
+                probation.linkAtBack(demoted);
+            }
+        } else {
+            node.queue.moveToBack(node);
+        }
+        modCount++;
+    }
+
+    /**
+     * Returns the value for the given key. Throws a NoSuchKeyException if the
+     * key doesn't exist in the dictionary
+     */
+    @Override
+    public V get(K key) {
+        Node<K, V> node = access(key);
+        if (node == null) {
+            throw new NoSuchKeyException();
+        }
+        return node.value;
+    }
+
+    @Override
+    public V getOrDefault(K key, V defaultValue) {
+        Node<K, V> node = access(key);
+        return node == null ? defaultValue : node.value;
+    }
+
+    /**
+     * Puts the given key and value into the dictionary, replacing the old
+     * value if the key already exists. If the cache is full, evicts either the
+     * new entry's rival at the front of probation or the new entry itself.
+     */
+    @Override
+    public void put(K key, V value) {
+        Node<K, V> node = index.getOrDefault(key, null);
+        if (node != null) {
+            node.value = value;
+            onUse(node);
+            return;
+        }
+        node = new Node<>(key, value);
+        index.put(key, node);
+        sketch.ensureCapacity(Math.min(maximumSize, 2 * index.size()));
+        sketch.increment(key);
+        window.linkAtBack(node);
+        modCount++;
+
+        if (window.size > maximumWindowSize) {
+            admit(window.front);
+        }
+    }
+
+    /**
+     * Moves the candidate pushed out of the window into the main region,
+     * evicting whichever of it and the probation victim is used less often.
+     */
+    private void admit(Node<K, V> candidate) {
+        window.unlink(candidate);
+        if (probation.size + protectedSegment.size < maximumMainSize) {
+            probation.linkAtBack(candidate);
+            return;
+        }
+        Node<K, V> victim = probation.front != null ? probation.front : protectedSegment.front;
+        if (victim != null && sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+            victim.queue.unlink(victim);
+            index.remove(victim.key);
+            probation.linkAtBack(candidate);
+        } else {
+            index.remove(candidate.key);
+        }
+        evictionCount++;
+    }
+
+    /**
+     * Returns the cached value for the key, or computes, caches and returns
+     * it if the key is absent. A null result is not cached.
+     */
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        Node<K, V> node = access(key);
+        if (node != null) {
+            return node.value;
+        }
+        V value = mappingFunction.apply(key);
+        if (value != null) {
+            this.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Removes the given key and returns its value. Throws a NoSuchKeyException
+     * if the key doesn't exist in the dictionary
+     */
+    @Override
+    public V remove(K key) {
+        Node<K, V> node = index.remove(key);
+        node.queue.unlink(node);
+        modCount++;
+        return node.value;
+    }
+
+    /**
+     * Returns true if the dictionary contains the key, false otherwise. This
+     * neither counts as a use of the key nor as a hit or miss.
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return index.containsKey(key);
+    }
+
+    /**
+     * Returns the number of key-value pairs in the dictionary
+     */
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Calls the action on each pair: the window first, then probation, then
+     * the protected segment, each from least to most recently used
+     */
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (Node<K, V> node = firstNode(); node != null; node = nextNode(node)) {
+            action.accept(node.key, node.value);
+        }
+    }
+
+    private Node<K, V> firstNode() {
+        if (window.front != null) {
+            return window.front;
+        }
+        return probation.front != null ? probation.front : protectedSegment.front;
+    }
+
+    /**
+     * Returns the node after the given one in iteration order, or null if it is the last
+     */
+    private Node<K, V> nextNode(Node<K, V> node) {
+        if (node.next != null) {
+            return node.next;
+        }
+        if (node.queue == window && probation.front != null) {
+            return probation.front;
+        }
+        return node.queue == protectedSegment ? null : protectedSegment.front;
+    }
+
+    /**
+     * Returns an iterator over the pairs in the same order as forEach. Throws
+     * a ConcurrentModificationException if the cache is used while iterating,
+     * since even a get reorders the entries.
+     */
+    @Override
+    public Iterator<KVPair<K, V>> iterator() {
+        return new TinyLfuIterator();
+    }
+
+    private static class Node<K, V> {
+        public final K key;
+        public V value;
+        public AccessQueue<K, V> queue;
+        public Node<K, V> prev;
+        public Node<K, V> next;
+
+        public Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * An intrusive doubly linked list of nodes, from least to most recently used
+     */
+    private static class AccessQueue<K, V> {
+        public Node<K, V> front;
+        public Node<K, V> back;
+        public int size;
+
+        public void linkAtBack(Node<K, V> node) {
+            node.queue = this;
+            node.prev = back;
+            node.next = null;
+            if (back == null) {
+                front = node;
+            } else {
+                back.next = node;
+            }
+            back = node;
+            size++;
+        }
+
+        public void unlink(Node<K, V> node) {
+            if (node.prev == null) {
+                front = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                back = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.queue = null;
+            node.prev = null;
+            node.next = null;
+            size--;
+        }
+
+        public void moveToBack(Node<K, V> node) {
+            if (node != back) {
+                unlink(node);
+                linkAtBack(node);
+            }
+        }
+    }
+
+    private class TinyLfuIterator implements Iterator<KVPair<K, V>> {
+        private Node<K, V> current;
+        private int expectedModCount;
+
+        public TinyLfuIterator() {
+            this.current = firstNode();
+            this.expectedModCount = modCount;
+        }
+
+        /**
+         * Returns true if there is another pair, false otherwise
+         */
+        public boolean hasNext() {
+            return current != null;
+        }
+
+        /**
+         * Returns the next KVPair, throws a NoSuchElementException if there isn't one
+         */
+        public KVPair<K, V> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (current == null) {
+                throw new NoSuchElementException();
+            }
+            KVPair<K, V> pair = new KVPair<>(current.key, current.value);
+            current = nextNode(current);
+            return pair;
+        }
+    }
+}
@@ -0,0 +1,433 @@
+package datastructures.concrete.dictionaries;
+
+import datastructures.concrete.KVPair;
+import datastructures.interfaces.IDictionary;
+import misc.exceptions.NoSuchKeyException;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A balanced (AVL) search tree used by ChainedHashDictionary in place of a
+ * CompactArrayDictionary once a chain grows long, so that a bucket full of
+ * colliding keys costs O(log n) to search instead of O(n).
+ *
+ * Keys are ordered by hash code first. Keys with the same hash code are then
+ * ordered by class name and compareTo() if they are Comparable. Keys that
+ * still tie (same hash and not mutually Comparable) share one tree node and
+ * are kept in a short linked list there, which is the best any hash-based
+ * structure can do for them.
+ */
+class TreeBucketDictionary<K, V> implements IDictionary<K, V> {
+    private TreeNode<K, V> root;
+    private int size;
+    // Scratch result of the last insert/delete, since those return the new subtree root
+    private boolean changed;
+    private V removedValue;
+
+    private final HashStrategy<K> strategy;
+    // Comparable ordering only agrees with equality when keys use their own equals()
+    private final boolean natural;
+
+    public TreeBucketDictionary() {
+        this(HashStrategy.natural());
+    }
+
+    /**
+     * Creates an empty bucket that hashes and compares keys with the given
+     * strategy. Unless the strategy has natural equality, keys are ordered by
+     * hash only, and keys with equal hashes share a node.
+     */
+    public TreeBucketDictionary(HashStrategy<K> strategy) {
+        root = null;
+        size = 0;
+        this.strategy = strategy;
+        this.natural = strategy.hasNaturalEquality();
+    }
+
+    private int hash(K key) {
+        return strategy.hash(key);
+    }
+
+    private boolean keysEqual(K key, K other) {
+        return key == other || strategy.equals(key, other);
+    }
+
+    /**
+     * Returns the class name keys are grouped under when their hashes tie,
+     * or "" for keys that have no natural ordering
+     */
+    private static String orderingClass(Object key) {
+        return key instanceof Comparable ? key.getClass().getName() : "";
+    }
+
+    /**
+     * Compares a key against the keys stored in the given node. Returns 0 if
+     * the key belongs in that node's list.
+     */
+    @SuppressWarnings("unchecked")
+    private int compare(int hash, Object key, TreeNode<?, ?> node) {
+        if (hash != node.hash) {
+            return hash < node.hash ? -1 : 1;
+        }
+        if (!natural) {
+            return 0;
+        }
+        Object other = node.entries.key;
+        if (key == null || other == null || key.getClass() != other.getClass()) {
+            return orderingClass(key).compareTo(orderingClass(other));
+        }
+        if (!(key instanceof Comparable)) {
+            return 0;
+        }
+        return ((Comparable<Object>) key).compareTo(other);
+    }
+
+    /**
+     * Returns the entry holding the given key, or null if there isn't one
+     */
+    private Entry<K, V> findEntry(K key) {
+        int hash = hash(key);
+        TreeNode<K, V> node = root;
+        while (node != null) {
+            int cmp = compare(hash, key, node);
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                node = node.right;
+            } else {
+                for (Entry<K, V> entry = node.entries; entry != null; entry = entry.next) {
+                    if (keysEqual(key, entry.key)) {
+                        return entry;
+                    }
+                }
+                return null;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public V get(K key) {
+        Entry<K, V> entry = findEntry(key);
+        if (entry == null) {
+            throw new NoSuchKeyException();
+        }
+        return entry.value;
+    }
+
+    @Override
+    public V getOrDefault(K key, V defaultValue) {
+        Entry<K, V> entry = findEntry(key);
+        return entry == null ? defaultValue : entry.value;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        Entry<K, V> entry = findEntry(key);
+        if (entry != null) {
+            entry.value = value;
+            return;
+        }
+        root = insert(root, hash(key), key, value);
+        size++;
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        Entry<K, V> entry = findEntry(key);
+        if (entry != null) {
+            return entry.value;
+        }
+        root = insert(root, hash(key), key, value);
+        size++;
+        return null;
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        Entry<K, V> entry = findEntry(key);
+        if (entry != null) {
+            return entry.value;
+        }
+        V value = mappingFunction.apply(key);
+        if (value != null) {
+            root = insert(root, hash(key), key, value);
+            size++;
+        }
+        return value;
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Entry<K, V> entry = findEntry(key);
+        V value = remappingFunction.apply(key, entry == null ? null : entry.value);
+        if (value == null) {
+            if (entry != null) {
+                remove(key);
+            }
+        } else if (entry == null) {
+            root = insert(root, hash(key), key, value);
+            size++;
+        } else {
+            entry.value = value;
+        }
+        return value;
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Entry<K, V> entry = findEntry(key);
+        if (entry == null) {
+            root = insert(root, hash(key), key, value);
+            size++;
+            return value;
+        }
+        V newValue = remappingFunction.apply(entry.value, value);
+        if (newValue == null) {
+            remove(key);
+        } else {
+            entry.value = newValue;
+        }
+        return newValue;
+    }
+
+    @Override
+    public V remove(K key) {
+        changed = false;
+        root = delete(root, hash(key), key);
+        if (!changed) {
+            throw new NoSuchKeyException();
+        }
+        size--;
+        V value = removedValue;
+        removedValue = null;
+        return value;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return findEntry(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Inserts a key known to be absent into the given subtree and returns the new subtree root
+     */
+    private TreeNode<K, V> insert(TreeNode<K, V> node, int hash, K key, V value) {
+        if (node == null) {
+            return new TreeNode<>(hash, new Entry<>(key, value, null));
+        }
+        int cmp = compare(hash, key, node);
+        if (cmp < 0) {
+            node.left = insert(node.left, hash, key, value);
+        } else if (cmp > 0) {
+            node.right = insert(node.right, hash, key, value);
+        } else {
+            node.entries = new Entry<>(key, value, node.entries);
+            return node;
+        }
+        return rebalance(node);
+    }
+
+    /**
+     * Removes the key from the given subtree, if present, and returns the new subtree root
+     */
+    private TreeNode<K, V> delete(TreeNode<K, V> node, int hash, K key) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(hash, key, node);
+        if (cmp < 0) {
+            node.left = delete(node.left, hash, key);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, hash, key);
+        } else {
+            Entry<K, V> prev = null;
+            Entry<K, V> entry = node.entries;
+            while (entry != null && !keysEqual(key, entry.key)) {
+                prev = entry;
+                entry = entry.next;
+            }
+            if (entry == null) {
+                return node;
+            }
+            changed = true;
+            removedValue = entry.value;
+            if (prev != null) {
+                prev.next = entry.next;
+                return node;
+            }
+            node.entries = entry.next;
+            if (node.entries != null) {
+                return node;
+            }
+            // The node is now empty, so unlink it from the tree
+            if (node.left == null) {
+                return node.right;
+            } else if (node.right == null) {
+                return node.left;
+            }
+            TreeNode<K, V> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            node.right = removeMin(node.right);
+            node.hash = successor.hash;
+            node.entries = successor.entries;
+        }
+        return rebalance(node);
+    }
+
+    /**
+     * Unlinks the leftmost node of the given subtree and returns the new subtree root
+     */
+    private TreeNode<K, V> removeMin(TreeNode<K, V> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return rebalance(node);
+    }
+
+    private static int height(TreeNode<?, ?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static void updateHeight(TreeNode<?, ?> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+    }
+
+    private TreeNode<K, V> rotateLeft(TreeNode<K, V> node) {
+        TreeNode<K, V> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        updateHeight(node);
+        updateHeight(pivot);
+        return pivot;
+    }
+
+    private TreeNode<K, V> rotateRight(TreeNode<K, V> node) {
+        TreeNode<K, V> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        updateHeight(node);
+        updateHeight(pivot);
+        return pivot;
+    }
+
+    /**
+     * Restores the AVL balance condition at the given node and returns the new subtree root
+     */
+    private TreeNode<K, V> rebalance(TreeNode<K, V> node) {
+        updateHeight(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        } else if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        forEach(root, action);
+    }
+
+    private static <K, V> void forEach(TreeNode<K, V> node, BiConsumer<? super K, ? super V> action) {
+        if (node == null) {
+            return;
+        }
+        forEach(node.left, action);
+        for (Entry<K, V> entry = node.entries; entry != null; entry = entry.next) {
+            action.accept(entry.key, entry.value);
+        }
+        forEach(node.right, action);
+    }
+
+    @Override
+    public Iterator<KVPair<K, V>> iterator() {
+        return new TreeIterator<>(root);
+    }
+
+    private static class TreeNode<K, V> {
+        public int hash;
+        public Entry<K, V> entries;
+        public TreeNode<K, V> left;
+        public TreeNode<K, V> right;
+        public int height;
+
+        public TreeNode(int hash, Entry<K, V> entries) {
+            this.hash = hash;
+            this.entries = entries;
+            this.height = 1;
+        }
+    }
+
+    private static class Entry<K, V> {
+        public final K key;
+        public V value;
+        public Entry<K, V> next;
+
+        public Entry(K key, V value, Entry<K, V> next) {
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /**
+     * In-order iterator; the stack holds the nodes whose left subtree is
+     * being visited, so its depth is bounded by the tree height.
+     */
+    private static class TreeIterator<K, V> implements Iterator<KVPair<K, V>> {
+        private Deque<TreeNode<K, V>> stack;
+        private Entry<K, V> entry;
+
+        public TreeIterator(TreeNode<K, V> root) {
+            this.stack = new ArrayDeque<>();
+            pushLeft(root);
+            this.entry = null;
+        }
+
+        private void pushLeft(TreeNode<K, V> node) {
+            for (; node != null; node = node.left) {
+                stack.push(node);
+            }
+        }
+
+        public boolean hasNext() {
+            return entry != null || !stack.isEmpty();
+        }
+
+        public KVPair<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (entry == null) {
+                TreeNode<K, V> node = stack.pop();
+                pushLeft(node.right);
+                entry = node.entries;
+            }
+            KVPair<K, V> pair = new KVPair<>(entry.key, entry.value);
+            entry = entry.next;
+            return pair;
+        }
+    }
+}
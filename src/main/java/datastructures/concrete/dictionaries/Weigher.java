@@ -0,0 +1,14 @@
+package datastructures.concrete.dictionaries;
+
+/**
+ * Computes how much of a cache's budget an entry uses, for example the
+ * approximate number of bytes it takes up.
+ */
+@FunctionalInterface
+public interface Weigher<K, V> {
+    /**
+     * Returns the weight of the entry, which must not be negative. The weight
+     * is computed once, when the entry is put in the cache.
+     */
+    int weigh(K key, V value);
+}
@@ -0,0 +1,35 @@
+package datastructures.interfaces;
+
+/**
+ * Walks the key-value pairs of a dictionary without allocating an object per pair:
+ *
+ *     ICursor<K, V> cursor = dict.cursor();
+ *     while (cursor.advance()) {
+ *         use(cursor.key(), cursor.value());
+ *     }
+ *
+ * A cursor starts out positioned before the first pair. Like an iterator, it
+ * is invalidated by adding or removing keys from the dictionary.
+ */
+public interface ICursor<K, V> {
+    /**
+     * Moves to the next pair. Returns 'false' once there are no more pairs.
+     */
+    public boolean advance();
+
+    /**
+     * Returns the key of the current pair.
+     */
+    public K key();
+
+    /**
+     * Returns the value of the current pair.
+     */
+    public V value();
+
+    /**
+     * Moves the cursor back before the first pair so the same cursor can be
+     * reused for another pass.
+     */
+    public void reset();
+}
@@ -4,6 +4,13 @@ import datastructures.concrete.KVPair;
 import misc.exceptions.NoSuchKeyException;
 
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Represents a data structure that contains a bunch of key-value mappings. Each key must be unique.
@@ -39,6 +46,82 @@ public interface IDictionary<K, V> extends Iterable<KVPair<K, V>> {
      */
     public void put(K key, V value);
 
+    /**
+     * Adds the key-value pair to the dictionary only if the key is not already present.
+     *
+     * Returns the value already associated with the key, or null if the key was
+     * absent and the given value was added.
+     *
+     * Note: The interface provides a default implementation built on containsKey,
+     *       get and put. Implementations should override it so that the key is
+     *       only located once.
+     */
+    public default V putIfAbsent(K key, V value) {
+        if (this.containsKey(key)) {
+            return this.get(key);
+        }
+        this.put(key, value);
+        return null;
+    }
+
+    /**
+     * If the key is not present, computes a value for it with the given function
+     * and adds it, unless the function returns null.
+     *
+     * Returns the value now associated with the key, or null if the key was
+     * absent and the function returned null.
+     */
+    public default V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        if (this.containsKey(key)) {
+            return this.get(key);
+        }
+        V value = mappingFunction.apply(key);
+        if (value != null) {
+            this.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Computes a new value for the key from the key and its current value (null
+     * if the key is absent) and stores it. If the function returns null, the
+     * key is removed instead (or simply not added).
+     *
+     * Returns the new value, or null if there is now no value for the key.
+     */
+    public default V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        boolean present = this.containsKey(key);
+        V value = remappingFunction.apply(key, present ? this.get(key) : null);
+        if (value != null) {
+            this.put(key, value);
+        } else if (present) {
+            this.remove(key);
+        }
+        return value;
+    }
+
+    /**
+     * If the key is absent, adds it with the given value. Otherwise, replaces its
+     * value with the result of applying the function to the old and given values,
+     * or removes the key if the function returns null. This makes counting a
+     * one-liner: dict.merge(word, 1, Integer::sum).
+     *
+     * Returns the new value, or null if the key was removed.
+     */
+    public default V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        if (!this.containsKey(key)) {
+            this.put(key, value);
+            return value;
+        }
+        V newValue = remappingFunction.apply(this.get(key), value);
+        if (newValue != null) {
+            this.put(key, newValue);
+        } else {
+            this.remove(key);
+        }
+        return newValue;
+    }
+
     /**
      * Remove the key-value pair corresponding to the given key from the dictionary.
      *
@@ -67,4 +150,75 @@ public interface IDictionary<K, V> extends Iterable<KVPair<K, V>> {
      * Returns a list of all key-value pairs contained within this dict.
      */
     public Iterator<KVPair<K, V>> iterator();
+
+    /**
+     * Calls the given action once for each key-value pair in this dictionary.
+     *
+     * Note: The default implementation goes through iterator(), which creates a
+     *       KVPair per pair. Implementations should override it with a loop over
+     *       their own storage.
+     */
+    public default void forEach(BiConsumer<? super K, ? super V> action) {
+        for (KVPair<K, V> pair : this) {
+            action.accept(pair.getKey(), pair.getValue());
+        }
+    }
+
+    /**
+     * Returns a cursor positioned before the first key-value pair.
+     *
+     * Note: The default implementation goes through iterator(), which creates a
+     *       KVPair per pair. Implementations should override it with a cursor
+     *       that reads their own storage directly.
+     */
+    public default ICursor<K, V> cursor() {
+        return new ICursor<K, V>() {
+            private Iterator<KVPair<K, V>> iter = IDictionary.this.iterator();
+            private KVPair<K, V> current = null;
+
+            public boolean advance() {
+                current = iter.hasNext() ? iter.next() : null;
+                return current != null;
+            }
+
+            public K key() {
+                return current.getKey();
+            }
+
+            public V value() {
+                return current.getValue();
+            }
+
+            public void reset() {
+                iter = IDictionary.this.iterator();
+                current = null;
+            }
+        };
+    }
+
+    /**
+     * Returns a spliterator over the key-value pairs in this dictionary.
+     *
+     * Note: The default implementation wraps iterator() and splits poorly.
+     *       Implementations should override it with one that splits their
+     *       storage into balanced ranges.
+     */
+    @Override
+    public default Spliterator<KVPair<K, V>> spliterator() {
+        return Spliterators.spliterator(this.iterator(), this.size(), Spliterator.DISTINCT);
+    }
+
+    /**
+     * Returns a sequential stream over the key-value pairs in this dictionary.
+     */
+    public default Stream<KVPair<K, V>> stream() {
+        return StreamSupport.stream(this.spliterator(), false);
+    }
+
+    /**
+     * Returns a parallel stream over the key-value pairs in this dictionary.
+     */
+    public default Stream<KVPair<K, V>> parallelStream() {
+        return StreamSupport.stream(this.spliterator(), true);
+    }
 }
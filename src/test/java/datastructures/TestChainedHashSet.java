@@ -390,4 +390,17 @@ public class TestChainedHashSet extends BaseTest {
             assertFalse(set.contains(i));
         }
     }
+
+    @Test(timeout=5 * SECOND)
+    public void testStreams() {
+        ISet<Integer> set = this.makeInstance();
+        int cap = 20000;
+        for (int i = 0; i < cap; i++) {
+            set.add(i);
+        }
+
+        assertEquals(cap, (int) set.stream().count());
+        assertEquals((long) cap * (cap - 1) / 2, set.parallelStream().mapToLong(Integer::longValue).sum());
+        assertTrue(set.parallelStream().allMatch(set::contains));
+    }
 }
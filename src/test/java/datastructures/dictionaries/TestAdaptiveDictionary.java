@@ -0,0 +1,89 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+
+import datastructures.concrete.KVPair;
+import datastructures.concrete.dictionaries.AdaptiveDictionary;
+import datastructures.interfaces.IDictionary;
+import org.junit.Test;
+
+public class TestAdaptiveDictionary extends TestDictionary {
+    protected <K, V> IDictionary<K, V> newDictionary() {
+        return new AdaptiveDictionary<>();
+    }
+
+    @Test(timeout=SECOND)
+    public void testPromotesAndDemotes() {
+        AdaptiveDictionary<Integer, Integer> dict = new AdaptiveDictionary<>();
+        for (int i = 0; i < 8; i++) {
+            dict.put(i, i);
+        }
+        assertFalse(dict.isPromoted());
+
+        dict.put(8, 8);
+        assertTrue(dict.isPromoted());
+        assertEquals(9, dict.size());
+        for (int i = 0; i < 9; i++) {
+            assertEquals(i, dict.get(i));
+        }
+
+        // Shrinking back to the promote threshold isn't enough to demote
+        dict.remove(8);
+        dict.remove(7);
+        assertTrue(dict.isPromoted());
+
+        dict.remove(6);
+        dict.remove(5);
+        dict.remove(4);
+        assertFalse(dict.isPromoted());
+        assertEquals(4, dict.size());
+
+        int count = 0;
+        for (KVPair<Integer, Integer> pair : dict) {
+            assertEquals(pair.getKey(), pair.getValue());
+            assertTrue(pair.getKey() < 4);
+            count++;
+        }
+        assertEquals(4, count);
+    }
+
+    @Test(timeout=SECOND)
+    public void testComputeAndMergeAcrossThresholds() {
+        AdaptiveDictionary<Integer, Integer> dict = new AdaptiveDictionary<>();
+        for (int i = 0; i < 20; i++) {
+            dict.merge(i % 10, 1, Integer::sum);
+        }
+        assertTrue(dict.isPromoted());
+        assertEquals(10, dict.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(2, dict.get(i));
+        }
+        for (int i = 0; i < 10; i++) {
+            dict.compute(i, (key, value) -> null);
+        }
+        assertFalse(dict.isPromoted());
+        assertEquals(0, dict.size());
+        assertTrue(dict.isEmpty());
+    }
+
+    @Test(timeout=SECOND)
+    public void testManyTinyDictionaries() {
+        IDictionary<Integer, String>[] dicts = makeArray(100000);
+        for (int i = 0; i < dicts.length; i++) {
+            dicts[i] = this.newDictionary();
+            for (int j = 0; j < i % 5; j++) {
+                dicts[i].put(j, "v" + j);
+            }
+        }
+        for (int i = 0; i < dicts.length; i++) {
+            assertEquals(i % 5, dicts[i].size());
+            assertEquals(i % 5 > 2, dicts[i].containsKey(2));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> IDictionary<K, V>[] makeArray(int size) {
+        return (IDictionary<K, V>[]) new IDictionary[size];
+    }
+}
@@ -0,0 +1,162 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import datastructures.concrete.KVPair;
+import datastructures.concrete.dictionaries.BTreeDictionary;
+import misc.BaseTest;
+import misc.exceptions.EmptyContainerException;
+import misc.exceptions.NoSuchKeyException;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class TestBTreeDictionary extends BaseTest {
+    @Test(timeout=SECOND)
+    public void testPutGetRemoveBasic() {
+        BTreeDictionary<String, String> dict = new BTreeDictionary<>();
+        dict.put("b", "2");
+        dict.put("a", "1");
+        dict.put("c", "3");
+        dict.put("a", "one");
+
+        assertEquals(3, dict.size());
+        assertEquals("one", dict.get("a"));
+        assertTrue(dict.containsKey("c"));
+        assertFalse(dict.containsKey("d"));
+        assertEquals("x", dict.getOrDefault("d", "x"));
+
+        assertEquals("2", dict.remove("b"));
+        assertEquals(2, dict.size());
+        try {
+            dict.remove("b");
+            fail("Expected NoSuchKeyException");
+        } catch (NoSuchKeyException ex) {
+            // This is ok: do nothing
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testIteratesInOrder() {
+        BTreeDictionary<Integer, Integer> dict = new BTreeDictionary<>();
+        for (int i = 0; i < 1000; i++) {
+            int key = (i * 7919) % 1000;
+            dict.put(key, -key);
+        }
+
+        int expected = 0;
+        for (KVPair<Integer, Integer> pair : dict) {
+            assertEquals(expected, pair.getKey());
+            assertEquals(-expected, pair.getValue());
+            expected++;
+        }
+        assertEquals(1000, expected);
+    }
+
+    @Test(timeout=SECOND)
+    public void testOrderedQueries() {
+        BTreeDictionary<Integer, String> dict = new BTreeDictionary<>();
+        for (int i = 0; i < 500; i++) {
+            dict.put(i * 10, "v" + i);
+        }
+
+        assertEquals(0, dict.firstKey());
+        assertEquals(4990, dict.lastKey());
+        assertEquals(120, dict.floorKey(125));
+        assertEquals(120, dict.floorKey(120));
+        assertEquals(130, dict.ceilingKey(125));
+        assertEquals(130, dict.ceilingKey(130));
+        assertNull(dict.floorKey(-1));
+        assertNull(dict.ceilingKey(4991));
+        assertEquals(4990, dict.floorKey(100000));
+        assertEquals(0, dict.ceilingKey(-100));
+    }
+
+    @Test(timeout=SECOND)
+    public void testFirstKeyOnEmpty() {
+        BTreeDictionary<Integer, String> dict = new BTreeDictionary<>();
+        try {
+            dict.firstKey();
+            fail("Expected EmptyContainerException");
+        } catch (EmptyContainerException ex) {
+            // This is ok: do nothing
+        }
+        assertNull(dict.floorKey(3));
+        assertFalse(dict.range(0, 10).hasNext());
+    }
+
+    @Test(timeout=SECOND)
+    public void testRange() {
+        BTreeDictionary<Integer, Integer> dict = new BTreeDictionary<>();
+        for (int i = 0; i < 2000; i += 2) {
+            dict.put(i, i);
+        }
+
+        Iterator<KVPair<Integer, Integer>> iter = dict.range(101, 301);
+        for (int expected = 102; expected < 301; expected += 2) {
+            assertTrue(iter.hasNext());
+            assertEquals(expected, iter.next().getKey());
+        }
+        assertFalse(iter.hasNext());
+
+        assertFalse(dict.range(500, 500).hasNext());
+        assertFalse(dict.range(5000, 6000).hasNext());
+    }
+
+    @Test(timeout=SECOND)
+    public void testNullKeyRejected() {
+        BTreeDictionary<String, String> dict = new BTreeDictionary<>();
+        try {
+            dict.put(null, "a");
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // This is ok: do nothing
+        }
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testMatchesTreeMapUnderRandomOperations() {
+        BTreeDictionary<Integer, Integer> dict = new BTreeDictionary<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(373);
+
+        for (int i = 0; i < 200000; i++) {
+            int key = random.nextInt(5000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.containsKey(key), dict.containsKey(key));
+                if (expected.containsKey(key)) {
+                    assertEquals(expected.remove(key), dict.remove(key));
+                }
+            } else {
+                expected.put(key, i);
+                dict.put(key, i);
+            }
+            if (i % 1000 == 0) {
+                assertEquals(expected.floorKey(key), dict.floorKey(key));
+                assertEquals(expected.ceilingKey(key), dict.ceilingKey(key));
+            }
+        }
+
+        assertEquals(expected.size(), dict.size());
+        Iterator<KVPair<Integer, Integer>> iter = dict.iterator();
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            KVPair<Integer, Integer> pair = iter.next();
+            assertEquals(entry.getKey(), pair.getKey());
+            assertEquals(entry.getValue(), pair.getValue());
+        }
+        assertFalse(iter.hasNext());
+
+        // Draining the tree exercises every borrow and merge case on the way down
+        for (int key : expected.keySet()) {
+            dict.remove(key);
+        }
+        assertEquals(0, dict.size());
+        assertFalse(dict.iterator().hasNext());
+    }
+}
@@ -3,10 +3,15 @@ package datastructures.dictionaries;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertFalse;
 
+import datastructures.concrete.KVPair;
 import datastructures.concrete.dictionaries.ChainedHashDictionary;
+import datastructures.concrete.dictionaries.HashStrategy;
+import datastructures.interfaces.ICursor;
 import datastructures.interfaces.IDictionary;
 import org.junit.Test;
 
+import java.util.Spliterator;
+
 public class TestChainedHashDictionary extends TestDictionary {
     protected <K, V> IDictionary<K, V> newDictionary() {
         return new ChainedHashDictionary<>();
@@ -37,6 +42,65 @@ public class TestChainedHashDictionary extends TestDictionary {
         assertEquals(-2, map.get(key2));
     }
 
+    /**
+     * A comparable key whose hash code is always the same, so every instance
+     * lands in the same chain.
+     */
+    private static class CollidingKey implements Comparable<CollidingKey> {
+        private final int id;
+
+        public CollidingKey(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(CollidingKey other) {
+            return Integer.compare(this.id, other.id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingKey && ((CollidingKey) o).id == this.id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testManyComparableObjectsWithSameHashCode() {
+        IDictionary<CollidingKey, Integer> map = this.newDictionary();
+        int cap = 20000;
+        for (int i = 0; i < cap; i++) {
+            map.put(new CollidingKey(i), i);
+        }
+
+        for (int i = 0; i < cap; i++) {
+            assertEquals(i, map.get(new CollidingKey(i)));
+            assertFalse(map.containsKey(new CollidingKey(-i - 1)));
+        }
+
+        // The cursor has to fall back to the tree's own cursor for the treeified chain
+        ICursor<CollidingKey, Integer> cursor = map.cursor();
+        int count = 0;
+        while (cursor.advance()) {
+            assertEquals(cursor.key().id, cursor.value());
+            count++;
+        }
+        assertEquals(cap, count);
+
+        // Shrink the chain back down past the threshold and make sure nothing is lost
+        for (int i = 3; i < cap; i++) {
+            assertEquals(i, map.remove(new CollidingKey(i)));
+        }
+        assertEquals(3, map.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i, map.get(new CollidingKey(i)));
+        }
+    }
+
     @Test(timeout=SECOND)
     public void testNegativeHashCode() {
         IDictionary<Wrapper<String>, String> dict = this.newDictionary();
@@ -86,4 +150,76 @@ public class TestChainedHashDictionary extends TestDictionary {
             dict.remove(i);
         }
     }
+
+    @Test(timeout=SECOND)
+    public void testSpliteratorSplitsChains() {
+        IDictionary<Integer, Integer> dict = this.newDictionary();
+        int cap = 10000;
+        for (int i = 0; i < cap; i++) {
+            dict.put(i, i);
+        }
+
+        Spliterator<KVPair<Integer, Integer>> suffix = dict.spliterator();
+        assertTrue(suffix.hasCharacteristics(Spliterator.SIZED));
+        assertTrue(suffix.hasCharacteristics(Spliterator.DISTINCT));
+        assertEquals((long) cap, suffix.estimateSize());
+
+        Spliterator<KVPair<Integer, Integer>> prefix = suffix.trySplit();
+        assertTrue(prefix != null);
+        assertEquals((long) cap / 2, prefix.estimateSize());
+
+        int[] counts = new int[2];
+        prefix.forEachRemaining(pair -> counts[0]++);
+        suffix.forEachRemaining(pair -> counts[1]++);
+        assertEquals(cap, counts[0] + counts[1]);
+        // Mixed hashes spread sequential keys evenly, so each half gets about as many
+        assertTrue(Math.abs(counts[0] - counts[1]) < cap / 10);
+    }
+
+    @Test(timeout=SECOND)
+    public void testByteArrayKeys() {
+        ChainedHashDictionary<byte[], Integer> dict = new ChainedHashDictionary<>(HashStrategy.BYTE_ARRAY);
+        for (int i = 0; i < 1000; i++) {
+            dict.put(("key" + i).getBytes(), i);
+        }
+        dict.put(null, -1);
+        assertEquals(1001, dict.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, dict.get(("key" + i).getBytes()));
+        }
+        assertEquals(-1, dict.get(null));
+        assertEquals(5, dict.remove("key5".getBytes()));
+        assertFalse(dict.containsKey("key5".getBytes()));
+        assertFalse(dict.containsKey("key1000".getBytes()));
+    }
+
+    @Test(timeout=SECOND)
+    public void testCustomStrategyInTreeifiedChain() {
+        // Case-insensitive keys that all collide, so their chain becomes a tree
+        HashStrategy<String> strategy = new HashStrategy<String>() {
+            public int hash(String key) {
+                return 42;
+            }
+
+            public boolean equals(String a, String b) {
+                return a.equalsIgnoreCase(b);
+            }
+        };
+        ChainedHashDictionary<String, Integer> dict = new ChainedHashDictionary<>(strategy);
+        for (int i = 0; i < 100; i++) {
+            dict.put("Key" + i, i);
+        }
+        for (int i = 0; i < 100; i++) {
+            dict.put("KEY" + i, i * 2);
+        }
+        assertEquals(100, dict.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i * 2, dict.get("key" + i));
+        }
+        for (int i = 0; i < 98; i++) {
+            dict.remove("kEy" + i);
+        }
+        assertEquals(2, dict.size());
+        assertEquals(198, dict.get("key99"));
+    }
 }
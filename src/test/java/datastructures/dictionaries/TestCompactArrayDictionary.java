@@ -0,0 +1,50 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+
+import datastructures.concrete.KVPair;
+import datastructures.concrete.dictionaries.CompactArrayDictionary;
+import datastructures.interfaces.IDictionary;
+import org.junit.Test;
+
+public class TestCompactArrayDictionary extends TestDictionary {
+    protected <K, V> IDictionary<K, V> newDictionary() {
+        return new CompactArrayDictionary<>();
+    }
+
+    @Test(timeout=SECOND)
+    public void testRemoveMovesLastPairIntoGap() {
+        IDictionary<String, Integer> dict = this.newDictionary();
+        for (int i = 0; i < 5; i++) {
+            dict.put("k" + i, i);
+        }
+        assertEquals(1, dict.remove("k1"));
+        assertEquals(4, dict.size());
+
+        int count = 0;
+        for (KVPair<String, Integer> pair : dict) {
+            assertTrue(!pair.getKey().equals("k1"));
+            assertEquals("k" + pair.getValue(), pair.getKey());
+            count++;
+        }
+        assertEquals(4, count);
+        assertEquals(4, dict.get("k4"));
+    }
+
+    @Test(timeout=SECOND)
+    public void testEqualHashesDifferentKeys() {
+        IDictionary<Wrapper<String>, Integer> dict = this.newDictionary();
+        for (int i = 0; i < 10; i++) {
+            dict.put(new Wrapper<>("k" + i, 7), i);
+        }
+        dict.put(null, -1);
+        assertEquals(-1, dict.remove(null));
+        for (int i = 0; i < 10; i += 2) {
+            assertEquals(i, dict.remove(new Wrapper<>("k" + i, 7)));
+        }
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i % 2 == 1, dict.containsKey(new Wrapper<>("k" + i, 7)));
+        }
+        assertEquals(5, dict.size());
+    }
+}
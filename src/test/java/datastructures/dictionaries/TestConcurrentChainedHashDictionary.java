@@ -0,0 +1,122 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+
+import datastructures.concrete.KVPair;
+import datastructures.concrete.dictionaries.ConcurrentChainedHashDictionary;
+import datastructures.interfaces.IDictionary;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class TestConcurrentChainedHashDictionary extends TestDictionary {
+    protected <K, V> IDictionary<K, V> newDictionary() {
+        return new ConcurrentChainedHashDictionary<>();
+    }
+
+    /**
+     * Runs the given task on several threads at once and rethrows the first failure.
+     */
+    private void runConcurrently(int numThreads, ThreadTask task) throws InterruptedException {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < numThreads; i++) {
+            int id = i;
+            threads.add(new Thread(() -> {
+                try {
+                    task.run(id);
+                } catch (Throwable ex) {
+                    failure.compareAndSet(null, ex);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError("Worker thread failed", failure.get());
+        }
+    }
+
+    private interface ThreadTask {
+        void run(int id);
+    }
+
+    @Test(timeout=10 * SECOND)
+    public void testConcurrentPutsDuringResize() throws InterruptedException {
+        IDictionary<Integer, Integer> dict = this.newDictionary();
+        int numThreads = 8;
+        int perThread = 50000;
+
+        runConcurrently(numThreads, id -> {
+            for (int i = id * perThread; i < (id + 1) * perThread; i++) {
+                dict.put(i, i);
+            }
+        });
+
+        assertEquals(numThreads * perThread, dict.size());
+        for (int i = 0; i < numThreads * perThread; i++) {
+            assertEquals(i, dict.get(i));
+        }
+
+        int count = 0;
+        for (KVPair<Integer, Integer> pair : dict) {
+            assertEquals(pair.getKey(), pair.getValue());
+            count++;
+        }
+        assertEquals(numThreads * perThread, count);
+    }
+
+    @Test(timeout=10 * SECOND)
+    public void testConcurrentReadsAndWrites() throws InterruptedException {
+        IDictionary<Integer, Integer> dict = this.newDictionary();
+        int keys = 1000;
+        for (int i = 0; i < keys; i++) {
+            dict.put(i, i);
+        }
+
+        runConcurrently(8, id -> {
+            for (int round = 0; round < 200; round++) {
+                for (int i = 0; i < keys; i++) {
+                    if (id == 0 && i % 10 == 0) {
+                        dict.put(i + keys, i);
+                        dict.remove(i + keys);
+                    } else {
+                        // Keys below 'keys' are never removed, so reads must always succeed
+                        assertEquals(i, dict.get(i));
+                    }
+                }
+            }
+        });
+
+        assertEquals(keys, dict.size());
+        assertFalse(dict.containsKey(keys));
+        assertTrue(dict.containsKey(keys - 1));
+    }
+
+    @Test(timeout=10 * SECOND)
+    public void testConcurrentMergeIsAtomic() throws InterruptedException {
+        IDictionary<Integer, Integer> dict = this.newDictionary();
+        int numThreads = 8;
+        int keys = 2000;
+
+        runConcurrently(numThreads, id -> {
+            for (int round = 0; round < 50; round++) {
+                for (int i = 0; i < keys; i++) {
+                    dict.merge(i, 1, Integer::sum);
+                }
+            }
+        });
+
+        assertEquals(keys, dict.size());
+        for (int i = 0; i < keys; i++) {
+            assertEquals(numThreads * 50, dict.get(i));
+        }
+    }
+}
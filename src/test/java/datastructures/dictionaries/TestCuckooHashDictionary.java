@@ -0,0 +1,62 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+
+import datastructures.concrete.dictionaries.CuckooHashDictionary;
+import datastructures.interfaces.IDictionary;
+import org.junit.Test;
+
+public class TestCuckooHashDictionary extends TestDictionary {
+    protected <K, V> IDictionary<K, V> newDictionary() {
+        return new CuckooHashDictionary<>();
+    }
+
+    @Test(timeout=SECOND)
+    public void testFillsToHighLoadFactor() {
+        CuckooHashDictionary<Integer, Integer> dict = new CuckooHashDictionary<>();
+        double highest = 0;
+        for (int i = 0; i < 100000; i++) {
+            dict.put(i * 31, i);
+            highest = Math.max(highest, dict.loadFactor());
+        }
+        assertTrue(highest > 0.9);
+        for (int i = 0; i < 100000; i++) {
+            assertEquals(i, dict.get(i * 31));
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testManyKeysWithSameHash() {
+        IDictionary<Wrapper<String>, Integer> dict = this.newDictionary();
+        for (int i = 0; i < 100; i++) {
+            dict.put(new Wrapper<>("k" + i, 42), i);
+        }
+        for (int i = 0; i < 100; i += 2) {
+            assertEquals(i, dict.remove(new Wrapper<>("k" + i, 42)));
+        }
+
+        assertEquals(50, dict.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i % 2 == 1, dict.containsKey(new Wrapper<>("k" + i, 42)));
+        }
+    }
+
+    @Test(timeout=10 * SECOND)
+    public void stressTest() {
+        int limit = 1000000;
+        IDictionary<Integer, Integer> dict = this.newDictionary();
+
+        for (int i = 0; i < limit; i++) {
+            dict.put(i, i);
+        }
+
+        for (int i = 0; i < limit; i += 2) {
+            assertEquals(i, dict.remove(i));
+        }
+
+        for (int i = 0; i < limit; i++) {
+            assertEquals(i % 2 == 1, dict.containsKey(i));
+        }
+        assertEquals(limit / 2, dict.size());
+    }
+}
@@ -6,6 +6,7 @@ import static org.junit.Assert.fail;
 
 import misc.BaseTest;
 import datastructures.concrete.KVPair;
+import datastructures.interfaces.ICursor;
 import datastructures.interfaces.IDictionary;
 import misc.exceptions.NoSuchKeyException;
 import org.junit.Test;
@@ -327,6 +328,73 @@ public abstract class TestDictionary extends BaseTest {
         }
     }
 
+    @Test(timeout=SECOND)
+    public void testPutIfAbsent() {
+        IDictionary<String, String> dict = this.makeBasicDictionary();
+
+        assertEquals("valA", dict.putIfAbsent("keyA", "other"));
+        assertEquals(null, dict.putIfAbsent("keyD", "valD"));
+        assertEquals("valD", dict.putIfAbsent("keyD", "other"));
+
+        this.assertDictMatches(
+                new String[] {"keyA", "keyB", "keyC", "keyD"},
+                new String[] {"valA", "valB", "valC", "valD"},
+                dict);
+    }
+
+    @Test(timeout=SECOND)
+    public void testComputeIfAbsent() {
+        IDictionary<String, Integer> dict = this.newDictionary();
+
+        assertEquals(3, dict.computeIfAbsent("abc", String::length));
+        assertEquals(3, dict.computeIfAbsent("abc", key -> {
+            throw new AssertionError("Should not recompute a present key");
+        }));
+        assertEquals(null, dict.computeIfAbsent("def", key -> null));
+
+        assertTrue(dict.containsKey("abc"));
+        assertFalse(dict.containsKey("def"));
+        assertEquals(1, dict.size());
+    }
+
+    @Test(timeout=SECOND)
+    public void testCompute() {
+        IDictionary<String, Integer> dict = this.newDictionary();
+
+        assertEquals(1, dict.compute("a", (key, old) -> old == null ? 1 : old + 1));
+        assertEquals(2, dict.compute("a", (key, old) -> old == null ? 1 : old + 1));
+        assertEquals(null, dict.compute("b", (key, old) -> null));
+        assertFalse(dict.containsKey("b"));
+
+        assertEquals(null, dict.compute("a", (key, old) -> null));
+        assertFalse(dict.containsKey("a"));
+        assertTrue(dict.isEmpty());
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testMergeCountsMany() {
+        IDictionary<Integer, Integer> dict = this.newDictionary();
+        int cap = 5000;
+
+        for (int repeats = 0; repeats < 4; repeats++) {
+            for (int i = 0; i < cap; i++) {
+                dict.merge(i, 1, Integer::sum);
+            }
+        }
+
+        assertEquals(cap, dict.size());
+        for (int i = 0; i < cap; i++) {
+            assertEquals(4, dict.get(i));
+        }
+
+        for (int i = 0; i < cap; i += 2) {
+            assertEquals(null, dict.merge(i, 0, (old, value) -> null));
+        }
+        assertEquals(cap / 2, dict.size());
+        assertFalse(dict.containsKey(0));
+        assertTrue(dict.containsKey(1));
+    }
+
     @Test(timeout=SECOND)
     public void testIterator() {
         IDictionary<String, Integer> dict = this.newDictionary();
@@ -348,6 +416,63 @@ public abstract class TestDictionary extends BaseTest {
         assertTrue(copy.isEmpty());
     }
 
+    @Test(timeout=SECOND)
+    public void testForEach() {
+        IDictionary<String, Integer> dict = this.newDictionary();
+        IDictionary<String, Integer> copy = this.newDictionary();
+        for (int i = 0; i < 1000; i++) {
+            dict.put("" + i, i);
+            copy.put("" + i, i);
+        }
+        dict.put(null, -1);
+        copy.put(null, -1);
+
+        dict.forEach((key, value) -> assertEquals(copy.remove(key), value));
+        assertTrue(copy.isEmpty());
+    }
+
+    @Test(timeout=SECOND)
+    public void testCursor() {
+        IDictionary<String, Integer> dict = this.newDictionary();
+        for (int i = 0; i < 1000; i++) {
+            dict.put("" + i, i);
+        }
+        dict.put(null, -1);
+
+        ICursor<String, Integer> cursor = dict.cursor();
+        for (int pass = 0; pass < 2; pass++) {
+            IDictionary<String, Integer> copy = this.newDictionary();
+            while (cursor.advance()) {
+                assertFalse(copy.containsKey(cursor.key()));
+                copy.put(cursor.key(), cursor.value());
+            }
+            assertFalse(cursor.advance());
+            assertEquals(dict.size(), copy.size());
+            for (KVPair<String, Integer> pair : dict) {
+                assertEquals(pair.getValue(), copy.get(pair.getKey()));
+            }
+            cursor.reset();
+        }
+
+        assertFalse(this.<String, String>newDictionary().cursor().advance());
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testStreams() {
+        IDictionary<Integer, Integer> dict = this.newDictionary();
+        int cap = 20000;
+        long expectedSum = 0;
+        for (int i = 0; i < cap; i++) {
+            dict.put(i, i * 2);
+            expectedSum += i * 2;
+        }
+
+        assertEquals(cap, (int) dict.stream().count());
+        assertEquals(expectedSum, dict.parallelStream().mapToLong(KVPair::getValue).sum());
+        assertEquals(cap, (int) dict.parallelStream().map(KVPair::getKey).distinct().count());
+        assertTrue(dict.parallelStream().allMatch(pair -> pair.getValue() == pair.getKey() * 2));
+    }
+
     @Test(timeout=SECOND)
     public void testIteratorUnusualKeys() {
         IDictionary<String, String> map = this.newDictionary();
@@ -0,0 +1,130 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import datastructures.concrete.KVPair;
+import datastructures.concrete.dictionaries.ExpiringDictionary;
+import datastructures.interfaces.IDictionary;
+import misc.exceptions.NoSuchKeyException;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+public class TestExpiringDictionary extends TestDictionary {
+    protected <K, V> IDictionary<K, V> newDictionary() {
+        return new ExpiringDictionary<>(1, TimeUnit.HOURS);
+    }
+
+    private static class FakeTicker implements ExpiringDictionary.Ticker {
+        private long nanos;
+
+        public FakeTicker(long start) {
+            this.nanos = start;
+        }
+
+        public long read() {
+            return nanos;
+        }
+
+        public void advance(long duration, TimeUnit unit) {
+            nanos += unit.toNanos(duration);
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testExpiresAfterDefaultTtl() {
+        FakeTicker ticker = new FakeTicker(0);
+        ExpiringDictionary<String, String> dict = new ExpiringDictionary<>(10, TimeUnit.SECONDS, ticker);
+        dict.put("a", "1");
+
+        ticker.advance(9, TimeUnit.SECONDS);
+        assertEquals("1", dict.get("a"));
+
+        ticker.advance(1, TimeUnit.SECONDS);
+        assertFalse(dict.containsKey("a"));
+        try {
+            dict.get("a");
+            fail("Expected NoSuchKeyException");
+        } catch (NoSuchKeyException ex) {
+            // This is ok: do nothing
+        }
+        assertEquals(0, dict.size());
+        assertEquals(1L, dict.expirationCount());
+    }
+
+    @Test(timeout=SECOND)
+    public void testPerEntryTtl() {
+        FakeTicker ticker = new FakeTicker(0);
+        ExpiringDictionary<String, String> dict = new ExpiringDictionary<>(1, TimeUnit.HOURS, ticker);
+        dict.put("short", "s", 30, TimeUnit.SECONDS);
+        dict.put("medium", "m", 20, TimeUnit.MINUTES);
+        dict.put("long", "l");
+        dict.put("week", "w", 8, TimeUnit.DAYS);
+
+        ticker.advance(31, TimeUnit.SECONDS);
+        assertFalse(dict.containsKey("short"));
+        assertTrue(dict.containsKey("medium"));
+
+        ticker.advance(20, TimeUnit.MINUTES);
+        assertFalse(dict.containsKey("medium"));
+        assertTrue(dict.containsKey("long"));
+
+        ticker.advance(1, TimeUnit.HOURS);
+        assertFalse(dict.containsKey("long"));
+        assertEquals("w", dict.get("week"));
+
+        ticker.advance(7, TimeUnit.DAYS);
+        assertTrue(dict.containsKey("week"));
+        ticker.advance(1, TimeUnit.DAYS);
+        assertFalse(dict.containsKey("week"));
+    }
+
+    @Test(timeout=SECOND)
+    public void testPutResetsDeadline() {
+        FakeTicker ticker = new FakeTicker(0);
+        ExpiringDictionary<String, String> dict = new ExpiringDictionary<>(10, TimeUnit.SECONDS, ticker);
+        dict.put("a", "1");
+        ticker.advance(8, TimeUnit.SECONDS);
+        dict.put("a", "2");
+        ticker.advance(8, TimeUnit.SECONDS);
+        assertEquals("2", dict.get("a"));
+        ticker.advance(3, TimeUnit.SECONDS);
+        assertFalse(dict.containsKey("a"));
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testWheelReclaimsWithoutLookups() {
+        // Start near the top of the range to check that deadlines may overflow
+        FakeTicker ticker = new FakeTicker(Long.MAX_VALUE - TimeUnit.MINUTES.toNanos(1));
+        ExpiringDictionary<Integer, Integer> dict = new ExpiringDictionary<>(1, TimeUnit.MINUTES, ticker);
+        for (int i = 0; i < 10000; i++) {
+            dict.put(i, i, 1 + i % 600, TimeUnit.SECONDS);
+        }
+
+        ticker.advance(11, TimeUnit.MINUTES);
+        dict.put(-1, -1);
+        assertEquals(1, dict.size());
+        assertEquals(10000L, dict.expirationCount());
+    }
+
+    @Test(timeout=SECOND)
+    public void testIteratorSkipsExpired() {
+        FakeTicker ticker = new FakeTicker(0);
+        ExpiringDictionary<Integer, Integer> dict = new ExpiringDictionary<>(10, TimeUnit.SECONDS, ticker);
+        for (int i = 0; i < 10; i++) {
+            dict.put(i, i, i % 2 == 0 ? 5 : 50, TimeUnit.SECONDS);
+        }
+        ticker.advance(6, TimeUnit.SECONDS);
+
+        int count = 0;
+        Iterator<KVPair<Integer, Integer>> iter = dict.iterator();
+        while (iter.hasNext()) {
+            assertEquals(1, iter.next().getKey() % 2);
+            count++;
+        }
+        assertEquals(5, count);
+    }
+}
@@ -0,0 +1,156 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+
+import datastructures.concrete.dictionaries.ChainedHashDictionary;
+import datastructures.concrete.dictionaries.HashStrategy;
+import datastructures.concrete.dictionaries.SipHashStrategy;
+import datastructures.interfaces.IDictionary;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Runs the ChainedHashDictionary tests with a randomly seeded SipHashStrategy.
+ */
+public class TestHardenedChainedHashDictionary extends TestChainedHashDictionary {
+    protected <K, V> IDictionary<K, V> newDictionary() {
+        return new ChainedHashDictionary<>(new SipHashStrategy<>());
+    }
+
+    /**
+     * Returns 2^n distinct strings that all have the same String.hashCode(),
+     * since "Aa" and "BB" hash alike and so do all their concatenations
+     */
+    private static String[] collidingStrings(int n) {
+        String[] strings = {""};
+        for (int i = 0; i < n; i++) {
+            String[] longer = new String[strings.length * 2];
+            for (int j = 0; j < strings.length; j++) {
+                longer[2 * j] = strings[j] + "Aa";
+                longer[2 * j + 1] = strings[j] + "BB";
+            }
+            strings = longer;
+        }
+        return strings;
+    }
+
+    @Test(timeout=SECOND)
+    public void testCollidingStringsAreSpread() {
+        String[] keys = collidingStrings(14);
+        assertEquals(keys[0].hashCode(), keys[keys.length - 1].hashCode());
+
+        // Tree buckets would make the dictionary itself work either way, so
+        // check that the seeded hashes actually tell the keys apart
+        SipHashStrategy<String> strategy = new SipHashStrategy<>();
+        Set<Integer> hashes = new HashSet<>();
+        for (String key : keys) {
+            hashes.add(strategy.hash(key));
+        }
+        assertTrue(hashes.size() > keys.length * 0.99);
+
+        IDictionary<String, Integer> dict = new ChainedHashDictionary<>(strategy);
+        for (int i = 0; i < keys.length; i++) {
+            dict.put(keys[i], i);
+        }
+        assertEquals(keys.length, dict.size());
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i, dict.get(keys[i]));
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testSipHashReferenceVectors() {
+        // SipHash-2-4 outputs from the reference implementation, for the key
+        // 00 01 .. 0f and the messages 00, 00 01, 00 01 02, .. Only the even
+        // lengths can be written as UTF-16LE strings.
+        long[] expected = {
+            0x726FDB47DD0E0E31L, 0x0D6C8009D9A94F5AL, 0xCF2794E0277187B7L, 0xCBC9466E58FEE3CEL,
+            0x93F5F5799A932462L, 0x7A5DBBC594DDB9F3L, 0x751E8FBC860EE5FBL, 0xF723CA908E7AF2EEL,
+        };
+        SipHashStrategy<String> strategy = new SipHashStrategy<>(0x0706050403020100L, 0x0F0E0D0C0B0A0908L);
+        for (int chars = 0; chars < expected.length; chars++) {
+            StringBuilder message = new StringBuilder();
+            for (int i = 0; i < chars; i++) {
+                message.append((char) ((2 * i) | ((2 * i + 1) << 8)));
+            }
+            long hash = expected[chars];
+            assertEquals((int) (hash ^ (hash >>> 32)), strategy.hash(message.toString()));
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testSameSeedSameHashes() {
+        SipHashStrategy<String> a = new SipHashStrategy<>(1L, 2L);
+        SipHashStrategy<String> b = new SipHashStrategy<>(1L, 2L);
+        SipHashStrategy<String> c = new SipHashStrategy<>(1L, 3L);
+        int differ = 0;
+        for (int i = 0; i < 100; i++) {
+            assertEquals(a.hash("key" + i), b.hash("key" + i));
+            if (a.hash("key" + i) != c.hash("key" + i)) {
+                differ++;
+            }
+        }
+        assertTrue(differ > 95);
+        assertEquals(0, a.hash(null));
+    }
+
+    /**
+     * Hashes every key to 0 until it is reseeded, as if an attacker had
+     * guessed the seed
+     */
+    private static class BrokenSeedStrategy implements HashStrategy<String> {
+        private static int brokenCalls = 0;
+        private final boolean broken;
+
+        public BrokenSeedStrategy(boolean broken) {
+            this.broken = broken;
+        }
+
+        public int hash(String key) {
+            if (broken) {
+                brokenCalls++;
+                return 0;
+            }
+            return key.hashCode();
+        }
+
+        public boolean equals(String a, String b) {
+            return a.equals(b);
+        }
+
+        @Override
+        public HashStrategy<String> reseed() {
+            return new BrokenSeedStrategy(false);
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testLongChainTriggersReseed() {
+        ChainedHashDictionary<String, Integer> dict = new ChainedHashDictionary<>(new BrokenSeedStrategy(true));
+        for (int i = 0; i < 1000; i++) {
+            dict.put("key" + i, i);
+        }
+
+        BrokenSeedStrategy.brokenCalls = 0;
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, dict.get("key" + i));
+        }
+        assertEquals(0, BrokenSeedStrategy.brokenCalls);
+        assertEquals(1000, dict.size());
+    }
+
+    @Test(timeout=SECOND)
+    public void testSeedIndependentCollisionsDoNotRehashEveryPut() {
+        // Wrapper keys with equal hash codes collide under every seed. Each put
+        // still scans the one chain, so keep n small enough for n^2 to be quick;
+        // rehashing on every put would be n^3 and still time out.
+        IDictionary<Wrapper<String>, Integer> dict = this.newDictionary();
+        for (int i = 0; i < 1000; i++) {
+            dict.put(new Wrapper<>("" + i, 7), i);
+        }
+        assertEquals(1000, dict.size());
+        assertEquals(999, dict.get(new Wrapper<>("999", 7)));
+    }
+}
@@ -0,0 +1,71 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+
+import datastructures.concrete.KVPair;
+import datastructures.concrete.dictionaries.ChainedHashDictionary;
+import datastructures.interfaces.IDictionary;
+import org.junit.Test;
+
+/**
+ * Runs the ChainedHashDictionary tests with incremental resizing turned on.
+ */
+public class TestIncrementalChainedHashDictionary extends TestChainedHashDictionary {
+    protected <K, V> IDictionary<K, V> newDictionary() {
+        return new ChainedHashDictionary<>(true);
+    }
+
+    @Test(timeout=SECOND)
+    public void testOperationsDuringMigration() {
+        IDictionary<Integer, Integer> dict = this.newDictionary();
+        // 12 entries reaches the load factor of the initial 16 chains and starts a resize
+        for (int i = 0; i < 12; i++) {
+            dict.put(i, i);
+        }
+
+        // Every key must still be reachable and iterable while the tables are split
+        int count = 0;
+        for (KVPair<Integer, Integer> pair : dict) {
+            assertEquals(pair.getKey(), pair.getValue());
+            count++;
+        }
+        assertEquals(12, count);
+
+        dict.put(3, 30);
+        assertEquals(30, dict.get(3));
+        assertEquals(12, dict.size());
+
+        assertEquals(7, dict.remove(7));
+        assertFalse(dict.containsKey(7));
+        for (int i = 12; i < 100; i++) {
+            dict.put(i, i);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i != 7, dict.containsKey(i));
+        }
+        assertEquals(99, dict.size());
+        assertTrue(dict.containsKey(3));
+    }
+
+    @Test(timeout=SECOND)
+    public void testGetWhileIteratingDuringMigration() {
+        IDictionary<Integer, Integer> dict = this.newDictionary();
+        for (int i = 0; i < 12; i++) {
+            dict.put(i, i);
+        }
+
+        // Reads move buckets, but must not move pairs past an iterator
+        int count = 0;
+        for (KVPair<Integer, Integer> pair : dict) {
+            for (int i = 0; i < 12; i++) {
+                assertEquals(i, dict.get(i));
+                assertTrue(dict.containsKey(i));
+            }
+            assertEquals(pair.getKey(), pair.getValue());
+            count++;
+        }
+        assertEquals(12, count);
+        assertEquals(12, dict.size());
+    }
+}
@@ -0,0 +1,101 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import datastructures.concrete.dictionaries.IntIntDictionary;
+import misc.BaseTest;
+import misc.exceptions.NoSuchKeyException;
+import org.junit.Test;
+
+public class TestIntIntDictionary extends BaseTest {
+    @Test(timeout=SECOND)
+    public void testPutAndGetBasic() {
+        IntIntDictionary dict = new IntIntDictionary();
+        dict.put(1, 10);
+        dict.put(-5, 20);
+        dict.put(0, 30);
+        dict.put(1, 40);
+
+        assertEquals(3, dict.size());
+        assertEquals(40, dict.get(1));
+        assertEquals(20, dict.get(-5));
+        assertEquals(30, dict.get(0));
+        assertEquals(7, dict.getOrDefault(2, 7));
+        assertFalse(dict.containsKey(2));
+    }
+
+    @Test(timeout=SECOND)
+    public void testErrorHandling() {
+        IntIntDictionary dict = new IntIntDictionary();
+        try {
+            dict.get(0);
+            fail("Expected NoSuchKeyException");
+        } catch (NoSuchKeyException ex) {
+            // This is ok: do nothing
+        }
+        dict.put(3, 3);
+        dict.remove(3);
+        try {
+            dict.remove(3);
+            fail("Expected NoSuchKeyException");
+        } catch (NoSuchKeyException ex) {
+            // This is ok: do nothing
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testAddTo() {
+        IntIntDictionary dict = new IntIntDictionary();
+        for (int i = 0; i < 1000; i++) {
+            dict.addTo(i % 10, 1);
+        }
+        assertEquals(10, dict.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(100, dict.get(i));
+        }
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testManyPutsAndRemoves() {
+        IntIntDictionary dict = new IntIntDictionary();
+        int cap = 200000;
+        for (int i = -cap; i < cap; i++) {
+            dict.put(i, i * 2);
+        }
+        for (int i = -cap; i < cap; i += 3) {
+            assertEquals(i * 2, dict.remove(i));
+        }
+        for (int i = -cap; i < cap; i++) {
+            boolean removed = (i + cap) % 3 == 0;
+            assertEquals(!removed, dict.containsKey(i));
+            if (!removed) {
+                assertEquals(i * 2, dict.get(i));
+            }
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testCursor() {
+        IntIntDictionary dict = new IntIntDictionary();
+        for (int i = 0; i < 100; i++) {
+            dict.put(i, -i);
+        }
+
+        IntIntDictionary.Cursor cursor = dict.cursor();
+        for (int pass = 0; pass < 2; pass++) {
+            IntIntDictionary seen = new IntIntDictionary();
+            while (cursor.advance()) {
+                assertEquals(-cursor.key(), cursor.value());
+                seen.put(cursor.key(), cursor.value());
+            }
+            assertEquals(100, seen.size());
+            assertFalse(cursor.advance());
+            cursor.reset();
+        }
+
+        assertFalse(new IntIntDictionary().cursor().advance());
+        assertTrue(dict.containsKey(0));
+    }
+}
@@ -0,0 +1,61 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import datastructures.concrete.dictionaries.IntObjectDictionary;
+import misc.BaseTest;
+import misc.exceptions.NoSuchKeyException;
+import org.junit.Test;
+
+public class TestIntObjectDictionary extends BaseTest {
+    @Test(timeout=SECOND)
+    public void testPutGetRemove() {
+        IntObjectDictionary<String> dict = new IntObjectDictionary<>();
+        dict.put(0, "zero");
+        dict.put(1, "one");
+        dict.put(-1, null);
+        dict.put(1, "uno");
+
+        assertEquals(3, dict.size());
+        assertEquals("zero", dict.get(0));
+        assertEquals("uno", dict.get(1));
+        assertEquals(null, dict.get(-1));
+        assertTrue(dict.containsKey(-1));
+        assertEquals("none", dict.getOrDefault(2, "none"));
+
+        assertEquals("zero", dict.remove(0));
+        assertEquals("uno", dict.remove(1));
+        assertFalse(dict.containsKey(0));
+        assertEquals(1, dict.size());
+
+        try {
+            dict.remove(1);
+            fail("Expected NoSuchKeyException");
+        } catch (NoSuchKeyException ex) {
+            // This is ok: do nothing
+        }
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testManyPutsAndRemoves() {
+        IntObjectDictionary<String> dict = new IntObjectDictionary<>();
+        int cap = 100000;
+        for (int i = 0; i < cap; i++) {
+            dict.put(i * 16, "" + i);
+        }
+        for (int i = 0; i < cap; i += 2) {
+            assertEquals("" + i, dict.remove(i * 16));
+        }
+        assertEquals(cap / 2, dict.size());
+
+        int count = 0;
+        IntObjectDictionary<String>.Cursor cursor = dict.cursor();
+        while (cursor.advance()) {
+            assertEquals("" + (cursor.key() / 16), cursor.value());
+            count++;
+        }
+        assertEquals(cap / 2, count);
+    }
+}
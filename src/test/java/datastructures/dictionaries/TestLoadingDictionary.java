@@ -0,0 +1,202 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import datastructures.concrete.dictionaries.ChainedHashDictionary;
+import datastructures.concrete.dictionaries.ExpiringDictionary;
+import datastructures.concrete.dictionaries.LoadingDictionary;
+import datastructures.concrete.dictionaries.LruCacheDictionary;
+import misc.BaseTest;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestLoadingDictionary extends BaseTest {
+    private static class FakeTicker implements ExpiringDictionary.Ticker {
+        private long nanos = 0;
+
+        public long read() {
+            return nanos;
+        }
+
+        public void advance(long duration, TimeUnit unit) {
+            nanos += unit.toNanos(duration);
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testLoadsOnMissAndCaches() {
+        AtomicInteger calls = new AtomicInteger();
+        LoadingDictionary<Integer, String> dict = new LoadingDictionary<>(
+                new ChainedHashDictionary<>(), key -> "v" + key + "#" + calls.incrementAndGet());
+
+        assertEquals("v1#1", dict.get(1));
+        assertEquals("v1#1", dict.get(1));
+        assertEquals("v2#2", dict.get(2));
+        assertEquals(2L, dict.loadCount());
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testConcurrentMissesShareOneLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            LoadingDictionary<String, Integer> dict = new LoadingDictionary<>(
+                    new ChainedHashDictionary<>(),
+                    key -> {
+                        calls.incrementAndGet();
+                        try {
+                            release.await();
+                        } catch (InterruptedException ex) {
+                            throw new IllegalStateException(ex);
+                        }
+                        return key.length();
+                    },
+                    executor);
+
+            CompletableFuture<Integer> first = dict.getAsync("hello");
+            for (int i = 0; i < 50; i++) {
+                assertTrue(dict.getAsync("hello") == first);
+            }
+            assertFalse(first.isDone());
+
+            release.countDown();
+            assertEquals(5, first.get(1, TimeUnit.SECONDS));
+            assertEquals(5, dict.get("hello"));
+            assertEquals(1, calls.get());
+            assertEquals(1L, dict.loadCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testFailedLoadIsNotCached() {
+        AtomicInteger calls = new AtomicInteger();
+        LoadingDictionary<String, String> dict = new LoadingDictionary<>(
+                new ChainedHashDictionary<>(),
+                key -> {
+                    if (calls.incrementAndGet() == 1) {
+                        throw new IllegalStateException("backend down");
+                    }
+                    return "ok";
+                },
+                Runnable::run);
+
+        try {
+            dict.get("a");
+            fail("Expected CompletionException");
+        } catch (CompletionException ex) {
+            assertTrue(ex.getCause() instanceof IllegalStateException);
+        }
+        assertEquals("ok", dict.get("a"));
+        assertEquals(2, calls.get());
+    }
+
+    @Test(timeout=SECOND)
+    public void testRefreshAheadReturnsOldValueWhileReloading() {
+        FakeTicker ticker = new FakeTicker();
+        AtomicInteger version = new AtomicInteger();
+        LoadingDictionary<String, Integer> dict = new LoadingDictionary<>(
+                new ExpiringDictionary<>(60, TimeUnit.SECONDS, ticker),
+                key -> version.incrementAndGet(),
+                Runnable::run, 45, TimeUnit.SECONDS, ticker);
+
+        assertEquals(1, dict.get("k"));
+        ticker.advance(30, TimeUnit.SECONDS);
+        assertEquals(1, dict.get("k"));
+        assertEquals(1L, dict.loadCount());
+
+        // Past the refresh interval: the stale value is served and a reload starts
+        ticker.advance(20, TimeUnit.SECONDS);
+        assertEquals(1, dict.get("k"));
+        assertEquals(2L, dict.loadCount());
+        assertEquals(2, dict.get("k"));
+
+        // The reload also pushed back the expiry, so the key never misses
+        ticker.advance(50, TimeUnit.SECONDS);
+        assertEquals(2, dict.get("k"));
+        assertEquals(3, dict.get("k"));
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testPutSupersedesRunningLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            LoadingDictionary<String, String> dict = new LoadingDictionary<>(
+                    new ChainedHashDictionary<>(),
+                    key -> {
+                        try {
+                            release.await();
+                        } catch (InterruptedException ex) {
+                            throw new IllegalStateException(ex);
+                        }
+                        return "loaded";
+                    },
+                    executor);
+
+            CompletableFuture<String> pending = dict.getAsync("a");
+            dict.put("a", "written");
+            release.countDown();
+
+            assertEquals("loaded", pending.get(1, TimeUnit.SECONDS));
+            assertEquals("written", dict.get("a"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testRefreshRecordExpiringDuringPurge() {
+        // Every read of the clock moves it on, so refresh entries expire
+        // between being checked and being removed
+        ExpiringDictionary.Ticker ticker = new ExpiringDictionary.Ticker() {
+            private long nanos = 0;
+
+            public long read() {
+                nanos += TimeUnit.MILLISECONDS.toNanos(100);
+                return nanos;
+            }
+        };
+        LoadingDictionary<Integer, Integer> dict = new LoadingDictionary<>(
+                new LruCacheDictionary<>(10), key -> key * 2, Runnable::run, 300, TimeUnit.MILLISECONDS, ticker);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i * 2, (int) dict.get(i));
+        }
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testCacheFailureCompletesFuture() {
+        ChainedHashDictionary<Integer, Integer> cache = new ChainedHashDictionary<Integer, Integer>() {
+            @Override
+            public void put(Integer key, Integer value) {
+                throw new IllegalArgumentException("value too heavy");
+            }
+        };
+        LoadingDictionary<Integer, Integer> dict = new LoadingDictionary<>(cache, key -> key);
+        try {
+            dict.get(1);
+            fail("Expected CompletionException");
+        } catch (CompletionException ex) {
+            assertTrue(ex.getCause() instanceof IllegalArgumentException);
+        }
+        // The failed load is not left in flight
+        try {
+            dict.get(1);
+            fail("Expected CompletionException");
+        } catch (CompletionException ex) {
+            // This is ok: do nothing
+        }
+        assertEquals(2L, dict.loadCount());
+    }
+}
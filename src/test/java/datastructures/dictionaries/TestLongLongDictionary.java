@@ -0,0 +1,116 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import datastructures.concrete.dictionaries.LongLongDictionary;
+import misc.BaseTest;
+import misc.exceptions.NoSuchKeyException;
+import org.junit.Test;
+
+public class TestLongLongDictionary extends BaseTest {
+    @Test(timeout=SECOND)
+    public void testPutAndGetBasic() {
+        LongLongDictionary dict = new LongLongDictionary();
+        dict.put(1, 10);
+        dict.put(-5, 20);
+        dict.put(0, 30);
+        dict.put(1, 40);
+
+        assertEquals(3, dict.size());
+        assertEquals(40L, dict.get(1));
+        assertEquals(20L, dict.get(-5));
+        assertEquals(30L, dict.get(0));
+        assertEquals(7L, dict.getOrDefault(2, 7));
+        assertFalse(dict.containsKey(2));
+    }
+
+    @Test(timeout=SECOND)
+    public void testErrorHandling() {
+        LongLongDictionary dict = new LongLongDictionary();
+        try {
+            dict.get(0);
+            fail("Expected NoSuchKeyException");
+        } catch (NoSuchKeyException ex) {
+            // This is ok: do nothing
+        }
+        dict.put(3, 3);
+        dict.remove(3);
+        try {
+            dict.remove(3);
+            fail("Expected NoSuchKeyException");
+        } catch (NoSuchKeyException ex) {
+            // This is ok: do nothing
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testAddTo() {
+        LongLongDictionary dict = new LongLongDictionary();
+        for (long i = 0; i < 1000; i++) {
+            dict.addTo(i % 10, 1);
+        }
+        assertEquals(10, dict.size());
+        for (long i = 0; i < 10; i++) {
+            assertEquals(100L, dict.get(i));
+        }
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testManyPutsAndRemoves() {
+        LongLongDictionary dict = new LongLongDictionary();
+        long cap = 200000;
+        for (long i = -cap; i < cap; i++) {
+            dict.put(i, i * 2);
+        }
+        for (long i = -cap; i < cap; i += 3) {
+            assertEquals(i * 2, dict.remove(i));
+        }
+        for (long i = -cap; i < cap; i++) {
+            boolean removed = (i + cap) % 3 == 0;
+            assertEquals(!removed, dict.containsKey(i));
+            if (!removed) {
+                assertEquals(i * 2, dict.get(i));
+            }
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testLargeKeys() {
+        LongLongDictionary dict = new LongLongDictionary();
+        dict.put(Long.MAX_VALUE, 1);
+        dict.put(Long.MIN_VALUE, 2);
+        dict.put(1L << 32, 3);
+        dict.put(1, 4);
+
+        assertEquals(4, dict.size());
+        assertEquals(1L, dict.get(Long.MAX_VALUE));
+        assertEquals(2L, dict.get(Long.MIN_VALUE));
+        assertEquals(3L, dict.get(1L << 32));
+        assertEquals(4L, dict.get(1));
+    }
+
+    @Test(timeout=SECOND)
+    public void testCursor() {
+        LongLongDictionary dict = new LongLongDictionary();
+        for (long i = 0; i < 100; i++) {
+            dict.put(i, -i);
+        }
+
+        LongLongDictionary.Cursor cursor = dict.cursor();
+        for (int pass = 0; pass < 2; pass++) {
+            LongLongDictionary seen = new LongLongDictionary();
+            while (cursor.advance()) {
+                assertEquals(-cursor.key(), cursor.value());
+                seen.put(cursor.key(), cursor.value());
+            }
+            assertEquals(100, seen.size());
+            assertFalse(cursor.advance());
+            cursor.reset();
+        }
+
+        assertFalse(new LongLongDictionary().cursor().advance());
+        assertTrue(dict.containsKey(0));
+    }
+}
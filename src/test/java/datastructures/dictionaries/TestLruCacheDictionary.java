@@ -0,0 +1,137 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+
+import datastructures.concrete.KVPair;
+import datastructures.concrete.dictionaries.LruCacheDictionary;
+import datastructures.interfaces.IDictionary;
+import org.junit.Test;
+
+import java.util.Iterator;
+
+public class TestLruCacheDictionary extends TestDictionary {
+    protected <K, V> IDictionary<K, V> newDictionary() {
+        return new LruCacheDictionary<>(Integer.MAX_VALUE);
+    }
+
+    @Test(timeout=SECOND)
+    public void testEvictsLeastRecentlyUsed() {
+        LruCacheDictionary<String, Integer> cache = new LruCacheDictionary<>(3);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+
+        // Using "a" makes "b" the least recently used entry
+        assertEquals(1, cache.get("a"));
+        cache.put("d", 4);
+
+        assertEquals(3, cache.size());
+        assertFalse(cache.containsKey("b"));
+        assertTrue(cache.containsKey("a"));
+        assertTrue(cache.containsKey("c"));
+        assertTrue(cache.containsKey("d"));
+        assertEquals(1L, cache.evictionCount());
+    }
+
+    @Test(timeout=SECOND)
+    public void testPutExistingKeyDoesNotEvict() {
+        LruCacheDictionary<String, Integer> cache = new LruCacheDictionary<>(2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("a", 10);
+        cache.put("c", 3);
+
+        assertEquals(10, cache.get("a"));
+        assertFalse(cache.containsKey("b"));
+        assertEquals(1L, cache.evictionCount());
+    }
+
+    @Test(timeout=SECOND)
+    public void testIteratesFromLeastRecentlyUsed() {
+        LruCacheDictionary<Integer, Integer> cache = new LruCacheDictionary<>(5);
+        for (int i = 0; i < 5; i++) {
+            cache.put(i, i);
+        }
+        cache.get(2);
+        cache.get(0);
+
+        int[] expected = {1, 3, 4, 2, 0};
+        Iterator<KVPair<Integer, Integer>> iter = cache.iterator();
+        for (int key : expected) {
+            assertEquals(key, iter.next().getKey());
+        }
+        assertFalse(iter.hasNext());
+    }
+
+    @Test(timeout=SECOND)
+    public void testCountsHitsAndMisses() {
+        LruCacheDictionary<Integer, Integer> cache = new LruCacheDictionary<>(10);
+        for (int i = 0; i < 20; i++) {
+            cache.computeIfAbsent(i % 5, key -> key * key);
+        }
+        cache.getOrDefault(42, -1);
+        cache.containsKey(3);
+
+        assertEquals(15L, cache.hitCount());
+        assertEquals(6L, cache.missCount());
+        assertEquals(15.0 / 21, cache.hitRate());
+
+        cache.resetStats();
+        assertEquals(0.0, cache.hitRate());
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testSizeStaysBounded() {
+        LruCacheDictionary<Integer, Integer> cache = new LruCacheDictionary<>(1000);
+        for (int i = 0; i < 200000; i++) {
+            cache.put(i, i);
+            assertTrue(cache.size() <= 1000);
+        }
+        assertEquals(199000L, cache.evictionCount());
+        for (int i = 199000; i < 200000; i++) {
+            assertEquals(i, cache.get(i));
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testEvictsByWeight() {
+        LruCacheDictionary<String, String> cache = new LruCacheDictionary<>(10, (key, value) -> value.length());
+        cache.put("a", "xxxx");
+        cache.put("b", "xxx");
+        cache.put("c", "xx");
+        assertEquals(9L, cache.weight());
+
+        cache.get("a");
+        cache.put("d", "xxx");
+
+        // "b" was least recently used and removing it alone gets back under budget
+        assertFalse(cache.containsKey("b"));
+        assertEquals(9L, cache.weight());
+        assertEquals(1L, cache.evictionCount());
+        assertEquals(3L, cache.evictionWeight());
+
+        // Growing an existing value counts the change in weight
+        cache.put("c", "xxxxxx");
+        assertFalse(cache.containsKey("a"));
+        assertTrue(cache.containsKey("d"));
+        assertEquals(9L, cache.weight());
+        assertEquals(2, cache.size());
+    }
+
+    @Test(timeout=SECOND)
+    public void testEntryHeavierThanMaximumIsEvicted() {
+        LruCacheDictionary<String, String> cache = new LruCacheDictionary<>(5, (key, value) -> value.length());
+        cache.put("a", "xx");
+        cache.put("b", "xxxxxx");
+
+        assertEquals(0, cache.size());
+        assertEquals(0L, cache.weight());
+        assertEquals(2L, cache.evictionCount());
+
+        cache.put("c", "xx");
+        assertEquals(1, cache.size());
+        cache.remove("c");
+        assertEquals(0L, cache.weight());
+    }
+}
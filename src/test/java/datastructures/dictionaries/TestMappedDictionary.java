@@ -0,0 +1,206 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import datastructures.concrete.KVPair;
+import datastructures.concrete.dictionaries.ChainedHashDictionary;
+import datastructures.concrete.dictionaries.MappedDictionary;
+import datastructures.concrete.dictionaries.OffHeapDictionary;
+import datastructures.interfaces.IDictionary;
+import misc.BaseTest;
+import misc.exceptions.NoSuchKeyException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+
+public class TestMappedDictionary extends BaseTest {
+    @Test(timeout=5 * SECOND)
+    public void testWriteThenReadBack() throws IOException {
+        IDictionary<String, Integer> source = new ChainedHashDictionary<>();
+        int cap = 10000;
+        for (int i = 0; i < cap; i++) {
+            source.put("key" + i, i);
+        }
+        source.put(null, -1);
+        source.put("nullValue", null);
+
+        Path file = Files.createTempFile("dictionary", ".bin");
+        try {
+            MappedDictionary.write(source, file, OffHeapDictionary.STRING_CODEC, OffHeapDictionary.INTEGER_CODEC);
+            try (MappedDictionary<String, Integer> dict = new MappedDictionary<>(
+                    file, OffHeapDictionary.STRING_CODEC, OffHeapDictionary.INTEGER_CODEC)) {
+                assertEquals(cap + 2, dict.size());
+                for (int i = 0; i < cap; i++) {
+                    assertEquals(i, dict.get("key" + i));
+                }
+                assertEquals(-1, dict.get(null));
+                assertTrue(dict.containsKey("nullValue"));
+                assertEquals(null, dict.get("nullValue"));
+                assertFalse(dict.containsKey("key" + cap));
+                assertEquals(7, dict.getOrDefault("missing", 7));
+
+                int count = 0;
+                for (KVPair<String, Integer> pair : dict) {
+                    assertEquals(source.get(pair.getKey()), pair.getValue());
+                    count++;
+                }
+                assertEquals(cap + 2, count);
+
+                try {
+                    dict.get("missing");
+                    fail("Expected NoSuchKeyException");
+                } catch (NoSuchKeyException ex) {
+                    // This is ok: do nothing
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testReadOnlyAndEmpty() throws IOException {
+        Path file = Files.createTempFile("dictionary", ".bin");
+        try {
+            MappedDictionary.write(new ChainedHashDictionary<String, String>(), file,
+                    OffHeapDictionary.STRING_CODEC, OffHeapDictionary.STRING_CODEC);
+            try (MappedDictionary<String, String> dict = new MappedDictionary<>(
+                    file, OffHeapDictionary.STRING_CODEC, OffHeapDictionary.STRING_CODEC)) {
+                assertTrue(dict.isEmpty());
+                assertFalse(dict.containsKey("a"));
+                assertFalse(dict.iterator().hasNext());
+                try {
+                    dict.put("a", "b");
+                    fail("Expected UnsupportedOperationException");
+                } catch (UnsupportedOperationException ex) {
+                    // This is ok: do nothing
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testRejectsOtherFiles() throws IOException {
+        Path file = Files.createTempFile("dictionary", ".bin");
+        try {
+            Files.write(file, "definitely not a dictionary".getBytes("UTF-8"));
+            try {
+                new MappedDictionary<>(file, OffHeapDictionary.STRING_CODEC, OffHeapDictionary.STRING_CODEC);
+                fail("Expected IOException");
+            } catch (IOException ex) {
+                // This is ok: do nothing
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testCloseDuringIteration() throws IOException {
+        IDictionary<String, Integer> source = new ChainedHashDictionary<>();
+        for (int i = 0; i < 100; i++) {
+            source.put("key" + i, i);
+        }
+        Path file = Files.createTempFile("dictionary", ".bin");
+        try {
+            MappedDictionary.write(source, file, OffHeapDictionary.STRING_CODEC, OffHeapDictionary.INTEGER_CODEC);
+            MappedDictionary<String, Integer> dict = new MappedDictionary<>(
+                    file, OffHeapDictionary.STRING_CODEC, OffHeapDictionary.INTEGER_CODEC);
+            Iterator<KVPair<String, Integer>> iter = dict.iterator();
+            iter.next();
+            dict.close();
+
+            // An iterator started before close() still reads the mapping safely
+            int count = 1;
+            while (iter.hasNext()) {
+                KVPair<String, Integer> pair = iter.next();
+                assertEquals(source.get(pair.getKey()), pair.getValue());
+                count++;
+            }
+            assertEquals(100, count);
+
+            try {
+                dict.get("key1");
+                fail("Expected IllegalStateException");
+            } catch (IllegalStateException ex) {
+                // This is ok: do nothing
+            }
+            dict.close();
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testRewriteLeavesOpenMappingIntact() throws IOException {
+        IDictionary<String, Integer> source = new ChainedHashDictionary<>();
+        for (int i = 0; i < 1000; i++) {
+            source.put("key" + i, i);
+        }
+        Path file = Files.createTempFile("dictionary", ".bin");
+        try {
+            MappedDictionary.write(source, file, OffHeapDictionary.STRING_CODEC, OffHeapDictionary.INTEGER_CODEC);
+            try (MappedDictionary<String, Integer> old = new MappedDictionary<>(
+                    file, OffHeapDictionary.STRING_CODEC, OffHeapDictionary.INTEGER_CODEC)) {
+                IDictionary<String, Integer> smaller = new ChainedHashDictionary<>();
+                smaller.put("only", -1);
+                MappedDictionary.write(smaller, file, OffHeapDictionary.STRING_CODEC, OffHeapDictionary.INTEGER_CODEC);
+
+                // The old version is still readable in full through the old mapping
+                assertEquals(1000, old.size());
+                for (int i = 0; i < 1000; i++) {
+                    assertEquals(i, old.get("key" + i));
+                }
+                try (MappedDictionary<String, Integer> current = new MappedDictionary<>(
+                        file, OffHeapDictionary.STRING_CODEC, OffHeapDictionary.INTEGER_CODEC)) {
+                    assertEquals(1, current.size());
+                    assertEquals(-1, current.get("only"));
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testRejectsCorruptHeader() throws IOException {
+        IDictionary<String, Integer> source = new ChainedHashDictionary<>();
+        for (int i = 0; i < 100; i++) {
+            source.put("key" + i, i);
+        }
+        Path file = Files.createTempFile("dictionary", ".bin");
+        try {
+            MappedDictionary.write(source, file, OffHeapDictionary.STRING_CODEC, OffHeapDictionary.INTEGER_CODEC);
+            byte[] valid = Files.readAllBytes(file);
+
+            // Slot count that isn't a power of two
+            byte[] bytes = valid.clone();
+            ByteBuffer.wrap(bytes).putInt(12, 300);
+            assertRejected(file, bytes);
+
+            // Truncated in the middle of the slot table
+            assertRejected(file, Arrays.copyOf(valid, 100));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void assertRejected(Path file, byte[] contents) throws IOException {
+        Files.write(file, contents);
+        try {
+            new MappedDictionary<>(file, OffHeapDictionary.STRING_CODEC, OffHeapDictionary.INTEGER_CODEC);
+            fail("Expected IOException");
+        } catch (IOException ex) {
+            // This is ok: do nothing
+        }
+    }
+}
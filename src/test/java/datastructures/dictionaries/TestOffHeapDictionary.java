@@ -0,0 +1,99 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import datastructures.concrete.KVPair;
+import datastructures.concrete.dictionaries.OffHeapDictionary;
+import misc.BaseTest;
+import misc.exceptions.NoSuchKeyException;
+import org.junit.Test;
+
+public class TestOffHeapDictionary extends BaseTest {
+    private OffHeapDictionary<String, String> makeStringDictionary() {
+        return new OffHeapDictionary<>(OffHeapDictionary.STRING_CODEC, OffHeapDictionary.STRING_CODEC);
+    }
+
+    @Test(timeout=SECOND)
+    public void testPutGetRemoveBasic() {
+        try (OffHeapDictionary<String, String> dict = this.makeStringDictionary()) {
+            dict.put("keyA", "valA");
+            dict.put("keyB", "valB");
+            dict.put("keyA", "a much longer replacement value");
+            dict.put(null, "nullKey");
+            dict.put("nullValue", null);
+
+            assertEquals(4, dict.size());
+            assertEquals("a much longer replacement value", dict.get("keyA"));
+            assertEquals("valB", dict.get("keyB"));
+            assertEquals("nullKey", dict.get(null));
+            assertEquals(null, dict.get("nullValue"));
+            assertTrue(dict.containsKey("nullValue"));
+            assertFalse(dict.containsKey("keyC"));
+
+            assertEquals("valB", dict.remove("keyB"));
+            assertEquals("nullKey", dict.remove(null));
+            assertEquals(2, dict.size());
+
+            try {
+                dict.get("keyB");
+                fail("Expected NoSuchKeyException");
+            } catch (NoSuchKeyException ex) {
+                // This is ok: do nothing
+            }
+        }
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testManyEntriesWithCompaction() {
+        try (OffHeapDictionary<Integer, String> dict = new OffHeapDictionary<>(
+                OffHeapDictionary.INTEGER_CODEC, OffHeapDictionary.STRING_CODEC, 4096)) {
+            int cap = 20000;
+            for (int repeats = 0; repeats < 5; repeats++) {
+                for (int i = 0; i < cap; i++) {
+                    dict.put(i, "value" + (i + repeats));
+                }
+            }
+            for (int i = 0; i < cap; i += 2) {
+                assertEquals("value" + (i + 4), dict.remove(i));
+            }
+
+            assertEquals(cap / 2, dict.size());
+            int count = 0;
+            for (KVPair<Integer, String> pair : dict) {
+                assertEquals("value" + (pair.getKey() + 4), pair.getValue());
+                count++;
+            }
+            assertEquals(cap / 2, count);
+
+            // Stale records from the overwrites and removals must have been reclaimed
+            assertTrue(dict.allocatedBytes() < 3 * (cap / 2) * 30);
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testByteArrayKeysCompareByContent() {
+        try (OffHeapDictionary<byte[], Long> dict = new OffHeapDictionary<>(
+                OffHeapDictionary.BYTES_CODEC, OffHeapDictionary.LONG_CODEC)) {
+            dict.put(new byte[] {1, 2, 3}, 123L);
+            assertEquals(123L, dict.get(new byte[] {1, 2, 3}));
+            assertFalse(dict.containsKey(new byte[] {1, 2}));
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testClosedDictionaryRejectsCalls() {
+        OffHeapDictionary<String, String> dict = this.makeStringDictionary();
+        dict.put("a", "b");
+        dict.close();
+        dict.close();
+
+        try {
+            dict.get("a");
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException ex) {
+            // This is ok: do nothing
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import datastructures.concrete.KVPair;
+import datastructures.concrete.dictionaries.PersistentHashDictionary;
+import datastructures.interfaces.IDictionary;
+import misc.exceptions.NoSuchKeyException;
+import org.junit.Test;
+
+/**
+ * Runs the shared dictionary tests against the mutable Builder, plus tests of
+ * the persistent plus()/minus() versions.
+ */
+public class TestPersistentHashDictionary extends TestDictionary {
+    protected <K, V> IDictionary<K, V> newDictionary() {
+        return new PersistentHashDictionary<K, V>().toBuilder();
+    }
+
+    @Test(timeout=SECOND)
+    public void testOldVersionsAreUnchanged() {
+        PersistentHashDictionary<String, Integer> empty = new PersistentHashDictionary<>();
+        PersistentHashDictionary<String, Integer> v1 = empty.plus("a", 1).plus("b", 2);
+        PersistentHashDictionary<String, Integer> v2 = v1.plus("a", 10).plus("c", 3);
+        PersistentHashDictionary<String, Integer> v3 = v2.minus("b");
+
+        assertEquals(0, empty.size());
+        assertEquals(2, v1.size());
+        assertEquals(1, v1.get("a"));
+        assertFalse(v1.containsKey("c"));
+
+        assertEquals(3, v2.size());
+        assertEquals(10, v2.get("a"));
+        assertEquals(2, v2.get("b"));
+
+        assertEquals(2, v3.size());
+        assertFalse(v3.containsKey("b"));
+        assertTrue(v2.containsKey("b"));
+    }
+
+    @Test(timeout=SECOND)
+    public void testPutThrowsAndMinusMissingKeyThrows() {
+        PersistentHashDictionary<String, Integer> dict = new PersistentHashDictionary<String, Integer>().plus("a", 1);
+        try {
+            dict.put("b", 2);
+            fail("Expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException ex) {
+            // This is ok: do nothing
+        }
+        try {
+            dict.minus("b");
+            fail("Expected NoSuchKeyException");
+        } catch (NoSuchKeyException ex) {
+            // This is ok: do nothing
+        }
+        assertTrue(dict.plus("a", dict.get("a")) == dict);
+    }
+
+    @Test(timeout=SECOND)
+    public void testCollidingKeys() {
+        PersistentHashDictionary<Wrapper<String>, Integer> dict = new PersistentHashDictionary<>();
+        for (int i = 0; i < 20; i++) {
+            // Groups of four keys share a hash code exactly
+            dict = dict.plus(new Wrapper<>("k" + i, i / 4), i);
+        }
+        PersistentHashDictionary<Wrapper<String>, Integer> full = dict;
+        for (int i = 0; i < 20; i += 2) {
+            dict = dict.minus(new Wrapper<>("k" + i, i / 4));
+        }
+
+        assertEquals(20, full.size());
+        assertEquals(10, dict.size());
+        for (int i = 0; i < 20; i++) {
+            Wrapper<String> key = new Wrapper<>("k" + i, i / 4);
+            assertEquals(i, full.get(key));
+            assertEquals(i % 2 == 1, dict.containsKey(key));
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testBuilderDoesNotAffectBuiltVersions() {
+        PersistentHashDictionary.Builder<Integer, Integer> builder = new PersistentHashDictionary.Builder<>();
+        for (int i = 0; i < 1000; i++) {
+            builder.put(i, i);
+        }
+        PersistentHashDictionary<Integer, Integer> snapshot = builder.build();
+        for (int i = 0; i < 1000; i += 2) {
+            builder.remove(i);
+        }
+        builder.put(5, -5);
+        PersistentHashDictionary<Integer, Integer> after = builder.build();
+
+        assertEquals(1000, snapshot.size());
+        assertEquals(500, after.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, snapshot.get(i));
+        }
+        assertEquals(-5, after.get(5));
+
+        PersistentHashDictionary.Builder<Integer, Integer> fromSnapshot = snapshot.toBuilder();
+        fromSnapshot.remove(1);
+        assertEquals(1, snapshot.get(1));
+        assertEquals(999, fromSnapshot.size());
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testManyVersions() {
+        int cap = 100000;
+        PersistentHashDictionary<Integer, Integer> dict = new PersistentHashDictionary<>();
+        for (int i = 0; i < cap; i++) {
+            dict = dict.plus(i, i * 2);
+        }
+        PersistentHashDictionary<Integer, Integer> full = dict;
+        for (int i = 0; i < cap; i += 3) {
+            dict = dict.minus(i);
+        }
+
+        int count = 0;
+        for (KVPair<Integer, Integer> pair : dict) {
+            assertTrue(pair.getKey() % 3 != 0);
+            assertEquals(pair.getKey() * 2, pair.getValue());
+            count++;
+        }
+        assertEquals(dict.size(), count);
+        assertEquals(cap, full.size());
+        assertTrue(full.containsKey(0));
+    }
+}
@@ -0,0 +1,75 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+
+import datastructures.concrete.dictionaries.RobinHoodHashDictionary;
+import datastructures.interfaces.IDictionary;
+import org.junit.Test;
+
+public class TestRobinHoodHashDictionary extends TestDictionary {
+    protected <K, V> IDictionary<K, V> newDictionary() {
+        return new RobinHoodHashDictionary<>();
+    }
+
+    @Test(timeout=SECOND)
+    public void testRemoveShiftsCollidingKeysBack() {
+        IDictionary<Wrapper<String>, Integer> dict = this.newDictionary();
+        for (int i = 0; i < 10; i++) {
+            dict.put(new Wrapper<>("" + i, i % 2), i);
+        }
+
+        for (int i = 0; i < 10; i += 3) {
+            assertEquals(i, dict.remove(new Wrapper<>("" + i, i % 2)));
+        }
+
+        assertEquals(6, dict.size());
+        for (int i = 0; i < 10; i++) {
+            Wrapper<String> key = new Wrapper<>("" + i, i % 2);
+            if (i % 3 == 0) {
+                assertFalse(dict.containsKey(key));
+            } else {
+                assertTrue(dict.containsKey(key));
+                assertEquals(i, dict.get(key));
+            }
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testNegativeHashCode() {
+        IDictionary<Wrapper<String>, String> dict = this.newDictionary();
+
+        Wrapper<String> key1 = new Wrapper<>("foo", -1);
+        Wrapper<String> key2 = new Wrapper<>("bar", Integer.MIN_VALUE);
+        Wrapper<String> key3 = new Wrapper<>("baz", 1);
+
+        dict.put(key1, "val1");
+        dict.put(key2, "val2");
+
+        assertTrue(dict.containsKey(key1));
+        assertTrue(dict.containsKey(key2));
+        assertFalse(dict.containsKey(key3));
+
+        assertEquals("val2", dict.remove(key2));
+        assertEquals("val1", dict.get(key1));
+    }
+
+    @Test(timeout=10 * SECOND)
+    public void stressTest() {
+        int limit = 1000000;
+        IDictionary<Integer, Integer> dict = this.newDictionary();
+
+        for (int i = 0; i < limit; i++) {
+            dict.put(i, i);
+        }
+
+        for (int i = 0; i < limit; i += 2) {
+            assertEquals(i, dict.remove(i));
+        }
+
+        for (int i = 0; i < limit; i++) {
+            assertEquals(i % 2 == 1, dict.containsKey(i));
+        }
+        assertEquals(limit / 2, dict.size());
+    }
+}
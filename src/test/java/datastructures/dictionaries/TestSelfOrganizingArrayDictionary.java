@@ -0,0 +1,105 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import datastructures.concrete.dictionaries.ArrayDictionary;
+import datastructures.interfaces.IDictionary;
+import org.junit.Test;
+
+public class TestSelfOrganizingArrayDictionary extends TestDictionary {
+    protected <K, V> IDictionary<K, V> newDictionary() {
+        return new ArrayDictionary<>(true);
+    }
+
+    /**
+     * A key that counts how many times equals() is called on it
+     */
+    private static class CountingKey {
+        private static long equalsCalls = 0;
+        private final int id;
+
+        public CountingKey(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            equalsCalls++;
+            return other instanceof CountingKey && ((CountingKey) other).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return id;
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testHotKeyMovesToFront() {
+        IDictionary<Integer, Integer> dict = this.newDictionary();
+        for (int i = 0; i < 10; i++) {
+            dict.put(i, i);
+        }
+        for (int i = 0; i < 20; i++) {
+            assertEquals(9, dict.get(9));
+        }
+        assertEquals(9, dict.iterator().next().getKey());
+        assertEquals(10, dict.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, dict.get(i));
+        }
+    }
+
+    /**
+     * Runs the same Zipf-distributed lookups against a plain and a
+     * self-organizing ArrayDictionary, counting the keys each one compares
+     */
+    @Test(timeout=5 * SECOND)
+    public void testZipfLookupsScanFewerKeys() {
+        int numKeys = 64;
+        int[] trace = zipfTrace(200000, numKeys, 1.0, new Random(7));
+        List<Integer> order = Arrays.asList(new Integer[numKeys]);
+        for (int i = 0; i < numKeys; i++) {
+            order.set(i, i);
+        }
+        Collections.shuffle(order, new Random(7));
+
+        long plain = countEquals(new ArrayDictionary<>(), order, trace);
+        long selfOrganizing = countEquals(new ArrayDictionary<>(true), order, trace);
+        assertTrue(selfOrganizing < plain * 0.6);
+    }
+
+    private static long countEquals(IDictionary<CountingKey, Integer> dict, List<Integer> order, int[] trace) {
+        for (int id : order) {
+            dict.put(new CountingKey(id), id);
+        }
+        CountingKey.equalsCalls = 0;
+        for (int id : trace) {
+            assertEquals(id, (int) dict.get(new CountingKey(id)));
+        }
+        return CountingKey.equalsCalls;
+    }
+
+    /**
+     * Returns a trace of keys in [0, numKeys) whose popularity follows a Zipf distribution
+     */
+    private static int[] zipfTrace(int length, int numKeys, double exponent, Random random) {
+        double[] cumulative = new double[numKeys];
+        double total = 0;
+        for (int i = 0; i < numKeys; i++) {
+            total += 1.0 / Math.pow(i + 1, exponent);
+            cumulative[i] = total;
+        }
+        int[] trace = new int[length];
+        for (int i = 0; i < length; i++) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+            trace[i] = index >= 0 ? index : -index - 1;
+        }
+        return trace;
+    }
+}
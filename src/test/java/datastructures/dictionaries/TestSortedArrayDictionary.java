@@ -0,0 +1,165 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import datastructures.concrete.KVPair;
+import datastructures.concrete.dictionaries.ArrayDictionary;
+import datastructures.concrete.dictionaries.ChainedHashDictionary;
+import datastructures.concrete.dictionaries.SortedArrayDictionary;
+import datastructures.interfaces.IDictionary;
+import misc.BaseTest;
+import misc.exceptions.EmptyContainerException;
+import misc.exceptions.NoSuchKeyException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class TestSortedArrayDictionary extends BaseTest {
+    @Test(timeout=SECOND)
+    public void testPutGetRemoveBasic() {
+        SortedArrayDictionary<String, String> dict = new SortedArrayDictionary<>();
+        dict.put("b", "2");
+        dict.put("a", "1");
+        dict.put("c", "3");
+        dict.put("a", "one");
+
+        assertEquals(3, dict.size());
+        assertEquals("one", dict.get("a"));
+        assertTrue(dict.containsKey("c"));
+        assertFalse(dict.containsKey("d"));
+        assertEquals("x", dict.getOrDefault("d", "x"));
+
+        assertEquals("2", dict.remove("b"));
+        assertEquals(2, dict.size());
+        try {
+            dict.remove("b");
+            fail("Expected NoSuchKeyException");
+        } catch (NoSuchKeyException ex) {
+            // This is ok: do nothing
+        }
+        try {
+            dict.get("b");
+            fail("Expected NoSuchKeyException");
+        } catch (NoSuchKeyException ex) {
+            // This is ok: do nothing
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testNullKeyThrows() {
+        SortedArrayDictionary<String, String> dict = new SortedArrayDictionary<>();
+        try {
+            dict.put(null, "a");
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // This is ok: do nothing
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testBuildSortsAndLastDuplicateWins() {
+        IDictionary<Integer, String> source = new ArrayDictionary<>();
+        source.put(5, "five");
+        source.put(1, "one");
+        source.put(3, "three");
+        SortedArrayDictionary<Integer, String> dict = SortedArrayDictionary.build(source);
+
+        assertEquals(3, dict.size());
+        Iterator<KVPair<Integer, String>> iter = dict.iterator();
+        assertEquals(1, (int) iter.next().getKey());
+        assertEquals(3, (int) iter.next().getKey());
+        assertEquals(5, (int) iter.next().getKey());
+        assertFalse(iter.hasNext());
+
+        List<KVPair<Integer, String>> pairs = new ArrayList<>();
+        pairs.add(new KVPair<>(2, "a"));
+        pairs.add(new KVPair<>(1, "b"));
+        pairs.add(new KVPair<>(2, "c"));
+        dict = SortedArrayDictionary.build(pairs);
+        assertEquals(2, dict.size());
+        assertEquals("c", dict.get(2));
+
+        dict = SortedArrayDictionary.build(new ArrayDictionary<Integer, String>());
+        assertEquals(0, dict.size());
+        dict.put(4, "four");
+        assertEquals("four", dict.get(4));
+    }
+
+    @Test(timeout=SECOND)
+    public void testOrderedQueries() {
+        SortedArrayDictionary<Integer, Integer> dict = new SortedArrayDictionary<>();
+        try {
+            dict.firstKey();
+            fail("Expected EmptyContainerException");
+        } catch (EmptyContainerException ex) {
+            // This is ok: do nothing
+        }
+        assertNull(dict.floorKey(3));
+        for (int i = 0; i < 100; i += 10) {
+            dict.put(i, i);
+        }
+        assertEquals(0, (int) dict.firstKey());
+        assertEquals(90, (int) dict.lastKey());
+        assertEquals(20, (int) dict.floorKey(25));
+        assertEquals(30, (int) dict.ceilingKey(25));
+        assertEquals(30, (int) dict.floorKey(30));
+        assertNull(dict.floorKey(-1));
+        assertNull(dict.ceilingKey(91));
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testRandomOperationsMatchTreeMap() {
+        Random random = new Random(12);
+        SortedArrayDictionary<Integer, Integer> dict = new SortedArrayDictionary<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(3000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.containsKey(key), dict.containsKey(key));
+                if (expected.containsKey(key)) {
+                    assertEquals(expected.remove(key), dict.remove(key));
+                }
+            } else {
+                expected.put(key, i);
+                dict.put(key, i);
+            }
+        }
+        assertEquals(expected.size(), dict.size());
+
+        Iterator<KVPair<Integer, Integer>> iter = dict.iterator();
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            KVPair<Integer, Integer> pair = iter.next();
+            assertEquals(entry.getKey(), pair.getKey());
+            assertEquals(entry.getValue(), pair.getValue());
+        }
+        assertFalse(iter.hasNext());
+
+        for (int key = -1; key <= 3000; key++) {
+            assertEquals(expected.floorKey(key), dict.floorKey(key));
+            assertEquals(expected.ceilingKey(key), dict.ceilingKey(key));
+        }
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testBuildLargeTable() {
+        int cap = 200000;
+        IDictionary<Integer, Integer> source = new ChainedHashDictionary<>();
+        for (int i = cap - 1; i >= 0; i--) {
+            source.put(i, i * 2);
+        }
+        SortedArrayDictionary<Integer, Integer> dict = SortedArrayDictionary.build(source);
+        assertEquals(cap, dict.size());
+        for (int i = 0; i < cap; i++) {
+            assertEquals(i * 2, (int) dict.get(i));
+        }
+        assertFalse(dict.containsKey(cap));
+    }
+}
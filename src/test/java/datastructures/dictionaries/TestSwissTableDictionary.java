@@ -0,0 +1,91 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+
+import datastructures.concrete.dictionaries.SwissTableDictionary;
+import datastructures.interfaces.IDictionary;
+import org.junit.Test;
+
+public class TestSwissTableDictionary extends TestDictionary {
+    protected <K, V> IDictionary<K, V> newDictionary() {
+        return new SwissTableDictionary<>();
+    }
+
+    /**
+     * A key that counts how many times equals() is called on it
+     */
+    private static class CountingKey {
+        private static int equalsCalls = 0;
+        private final int id;
+
+        public CountingKey(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            equalsCalls++;
+            return other instanceof CountingKey && ((CountingKey) other).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return id;
+        }
+    }
+
+    @Test(timeout=SECOND)
+    public void testFewEqualsCallsPerLookup() {
+        int cap = 10000;
+        IDictionary<CountingKey, Integer> dict = this.newDictionary();
+        for (int i = 0; i < cap; i++) {
+            dict.put(new CountingKey(i), i);
+        }
+
+        CountingKey.equalsCalls = 0;
+        for (int i = 0; i < cap; i++) {
+            assertEquals(i, dict.get(new CountingKey(i)));
+        }
+        assertTrue(CountingKey.equalsCalls < cap * 1.1);
+
+        CountingKey.equalsCalls = 0;
+        for (int i = cap; i < 2 * cap; i++) {
+            assertTrue(!dict.containsKey(new CountingKey(i)));
+        }
+        assertTrue(CountingKey.equalsCalls < cap * 0.2);
+    }
+
+    @Test(timeout=SECOND)
+    public void testChurnReusesDeletedSlots() {
+        IDictionary<Integer, Integer> dict = this.newDictionary();
+        for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < 1000; i++) {
+                dict.put(round * 1000 + i, i);
+            }
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(i, dict.remove(round * 1000 + i));
+            }
+        }
+        assertEquals(0, dict.size());
+        assertTrue(!dict.iterator().hasNext());
+    }
+
+    @Test(timeout=10 * SECOND)
+    public void stressTest() {
+        int limit = 1000000;
+        IDictionary<Integer, Integer> dict = this.newDictionary();
+
+        for (int i = 0; i < limit; i++) {
+            dict.put(i, i);
+        }
+
+        for (int i = 0; i < limit; i += 2) {
+            assertEquals(i, dict.remove(i));
+        }
+
+        for (int i = 0; i < limit; i++) {
+            assertEquals(i % 2 == 1, dict.containsKey(i));
+        }
+        assertEquals(limit / 2, dict.size());
+    }
+}
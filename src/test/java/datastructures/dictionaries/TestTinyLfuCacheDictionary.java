@@ -0,0 +1,89 @@
+package datastructures.dictionaries;
+
+import static org.junit.Assert.assertTrue;
+
+import datastructures.concrete.dictionaries.LruCacheDictionary;
+import datastructures.concrete.dictionaries.TinyLfuCacheDictionary;
+import datastructures.interfaces.IDictionary;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class TestTinyLfuCacheDictionary extends TestDictionary {
+    protected <K, V> IDictionary<K, V> newDictionary() {
+        return new TinyLfuCacheDictionary<>(Integer.MAX_VALUE);
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testSizeStaysBounded() {
+        TinyLfuCacheDictionary<Integer, Integer> cache = new TinyLfuCacheDictionary<>(500);
+        for (int i = 0; i < 100000; i++) {
+            cache.put(i, i);
+            assertTrue(cache.size() <= 500);
+        }
+        assertEquals(500, cache.size());
+        assertEquals(99500L, cache.evictionCount());
+    }
+
+    @Test(timeout=5 * SECOND)
+    public void testHotKeysSurviveScan() {
+        TinyLfuCacheDictionary<Integer, Integer> tinyLfu = new TinyLfuCacheDictionary<>(100);
+        LruCacheDictionary<Integer, Integer> lru = new LruCacheDictionary<>(100);
+
+        // The 50 hot keys keep being used, but with ten one-hit wonders between
+        // uses each falls out of a plain LRU before it comes around again
+        int scanKey = 1000;
+        for (int round = 0; round < 200; round++) {
+            for (int hotKey = 0; hotKey < 50; hotKey++) {
+                tinyLfu.computeIfAbsent(hotKey, k -> k);
+                lru.computeIfAbsent(hotKey, k -> k);
+                for (int i = 0; i < 10; i++) {
+                    tinyLfu.computeIfAbsent(scanKey, k -> k);
+                    lru.computeIfAbsent(scanKey, k -> k);
+                    scanKey++;
+                }
+            }
+        }
+
+        for (int hotKey = 0; hotKey < 50; hotKey++) {
+            assertTrue(tinyLfu.containsKey(hotKey));
+        }
+        assertEquals(0L, lru.hitCount());
+        assertTrue(tinyLfu.hitCount() > 9000);
+    }
+
+    @Test(timeout=10 * SECOND)
+    public void testBeatsLruOnZipfianTraffic() {
+        int cacheSize = 500;
+        int[] trace = zipfTrace(200000, 50000, 1.0, new Random(42));
+
+        TinyLfuCacheDictionary<Integer, Integer> tinyLfu = new TinyLfuCacheDictionary<>(cacheSize);
+        LruCacheDictionary<Integer, Integer> lru = new LruCacheDictionary<>(cacheSize);
+        for (int key : trace) {
+            tinyLfu.computeIfAbsent(key, k -> k);
+            lru.computeIfAbsent(key, k -> k);
+        }
+
+        assertEquals((long) trace.length, tinyLfu.hitCount() + tinyLfu.missCount());
+        assertTrue(tinyLfu.hitRate() > lru.hitRate());
+    }
+
+    /**
+     * Returns a trace of keys in [0, numKeys) whose popularity follows a Zipf distribution
+     */
+    private static int[] zipfTrace(int length, int numKeys, double exponent, Random random) {
+        double[] cumulative = new double[numKeys];
+        double total = 0;
+        for (int i = 0; i < numKeys; i++) {
+            total += 1.0 / Math.pow(i + 1, exponent);
+            cumulative[i] = total;
+        }
+        int[] trace = new int[length];
+        for (int i = 0; i < length; i++) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+            trace[i] = index >= 0 ? index : -index - 1;
+        }
+        return trace;
+    }
+}